@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Runs customers.js against thread-per-request and virtual thread mode at 1k, 5k and 10k clients
+# and prints the results as a Markdown table.
+# Usage: JAVA_HOME=/path/to/jdk-21 loadtest/compare.sh
+# Requires k6, jq and a Java 21 runtime: on older runtimes spring.threads.virtual.enabled is ignored,
+# so both modes would run on platform threads.
+set -euo pipefail
+
+JAR=${JAR:-build/libs/task-0.0.1-SNAPSHOT.jar}
+BASE_PROFILES=${BASE_PROFILES:-prod}
+DURATION=${DURATION:-2m}
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+
+if ! "$JAVA" -version 2>&1 | grep -Eq 'version "(2[1-9]|[3-9][0-9])'; then
+    echo "A Java 21 or newer runtime is required, set JAVA_HOME" >&2
+    exit 1
+fi
+
+results=$(mktemp -d)
+echo "| Mode | Clients | Requests/s | p50 (ms) | p99 (ms) | Failed |"
+echo "|------|--------:|-----------:|---------:|---------:|-------:|"
+
+for mode in platform virtual; do
+    profiles=$BASE_PROFILES
+    if [ "$mode" = virtual ]; then
+        profiles="$profiles,virtual"
+    fi
+
+    "$JAVA" -jar "$JAR" --spring.profiles.active="$profiles" > "$results/$mode.log" 2>&1 &
+    app=$!
+    trap 'kill $app 2>/dev/null' EXIT
+    until curl -sf http://127.0.0.1:9998/actuator/health > /dev/null; do
+        sleep 1
+    done
+
+    for vus in 1000 5000 10000; do
+        summary="$results/$mode-$vus.json"
+        k6 run -q -e VUS="$vus" -e DURATION="$DURATION" --summary-export "$summary" loadtest/customers.js > /dev/null
+        jq -r --arg mode "$mode" --arg vus "$vus" '.metrics as $m |
+            "| \($mode) | \($vus) | \($m.http_reqs.rate | floor) | \($m.http_req_duration["p(50)"] | floor) | "
+            + "\($m.http_req_duration["p(99)"] | floor) | \($m.http_req_failed.value * 100 | floor)% |"' "$summary"
+    done
+
+    kill "$app"
+    wait "$app" 2>/dev/null || true
+done
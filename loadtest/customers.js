@@ -0,0 +1,52 @@
+// k6 load test of the customer API.
+// Usage: k6 run -e VUS=1000 -e BASE_URL=http://localhost:9999 loadtest/customers.js
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:9999';
+const VUS = parseInt(__ENV.VUS || '1000');
+const DURATION = __ENV.DURATION || '2m';
+
+export const options = {
+    scenarios: {
+        mixed: {
+            executor: 'constant-vus',
+            vus: VUS,
+            duration: DURATION,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const ids = [];
+    for (let i = 0; i < 200; i++) {
+        const res = http.post(`${BASE_URL}/api/customers`, JSON.stringify({
+            fullName: `Load Test ${i}`,
+            email: `load.test.${i}.${Date.now()}@example.com`,
+            phone: '+31234567890',
+        }), { headers: { 'Content-Type': 'application/json' } });
+        if (res.status === 201 || res.status === 200) {
+            ids.push(res.json('id'));
+        }
+    }
+    return { ids };
+}
+
+export default function (data) {
+    const roll = Math.random();
+    if (roll < 0.7) {
+        const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+        const res = http.get(`${BASE_URL}/api/customers/${id}`, { tags: { name: 'get' } });
+        check(res, { 'get ok': (r) => r.status === 200 });
+    } else if (roll < 0.95) {
+        const res = http.get(`${BASE_URL}/api/customers?count=false&size=20`, { tags: { name: 'list' } });
+        check(res, { 'list ok': (r) => r.status === 200 });
+    } else {
+        const res = http.post(`${BASE_URL}/api/customers`, JSON.stringify({
+            fullName: 'Load Test',
+            email: `load.${__VU}.${__ITER}.${Date.now()}@example.com`,
+        }), { headers: { 'Content-Type': 'application/json' }, tags: { name: 'create' } });
+        check(res, { 'create ok': (r) => r.status === 201 || r.status === 200 });
+    }
+}
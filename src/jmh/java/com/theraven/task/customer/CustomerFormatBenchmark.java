@@ -0,0 +1,75 @@
+package com.theraven.task.customer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the response formats on a page of 1000 customers: serialization time is measured by JMH,
+ * the bytes on the wire of each format and compression are printed at the end of every trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerFormatBenchmark {
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"json", "smile", "cbor"})
+    private String format;
+
+    @Param({"none", "gzip"})
+    private String compression;
+
+    private ObjectWriter objectWriter;
+    private List<CustomerResponseDto> page;
+    private int size;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "smile" -> new SmileFactory();
+            case "cbor" -> new CBORFactory();
+            default -> new JsonFactory();
+        };
+        objectWriter = new ObjectMapper(factory).writerFor(List.class);
+
+        page = new ArrayList<>(PAGE_SIZE);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            page.add(new CustomerResponseDto(id, "Customer " + id, "customer." + id + "@example.com",
+                    "+3123456" + (1000 + id), 1717171717171L + id));
+        }
+        size = serialize().length;
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.out.printf("%n%s/%s: %d bytes per page of %d customers%n", format, compression, size, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        if (compression.equals("none")) {
+            return objectWriter.writeValueAsBytes(page);
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(16 * 1024);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            objectWriter.writeValue(gzipOutputStream, page);
+        }
+        return outputStream.toByteArray();
+    }
+}
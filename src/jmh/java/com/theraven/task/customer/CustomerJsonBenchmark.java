@@ -0,0 +1,38 @@
+package com.theraven.task.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures JSON serialization of CustomerResponseDto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerJsonBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ObjectWriter objectWriter;
+    private CustomerResponseDto responseDto;
+
+    @Setup
+    public void setUp() {
+        objectWriter = objectMapper.writerFor(CustomerResponseDto.class);
+        responseDto = new CustomerResponseDto(591431L, "Dmytro Markevych", "dmytro@gmail.com", "+31234567890",
+                1717171717171L);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectWriter.writeValueAsBytes(responseDto);
+    }
+}
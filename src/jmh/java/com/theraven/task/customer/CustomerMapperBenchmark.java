@@ -0,0 +1,54 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.customer.dto.CustomerRequestDto;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the explicit CustomerMapper with the reflective ModelMapper mapping it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerMapperBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final CustomerMapper customerMapper = new CustomerMapper();
+
+    private CustomerRequestDto requestDto;
+    private Customer customer;
+
+    @Setup
+    public void setUp() {
+        long time = new Date().getTime();
+        requestDto = new CustomerRequestDto("Dmytro Markevych", "dmytro@gmail.com", "+31234567890");
+        customer = new Customer(1L, time, time, "Dmytro Markevych", "dmytro@gmail.com", "+31234567890", true, 0L);
+    }
+
+    @Benchmark
+    public Customer requestToEntity() {
+        return customerMapper.mapRequestDtoToEntity(requestDto);
+    }
+
+    @Benchmark
+    public Customer requestToEntityModelMapper() {
+        return modelMapper.map(requestDto, Customer.class);
+    }
+
+    @Benchmark
+    public CustomerResponseDto entityToResponse() {
+        return customerMapper.mapEntityToResponseDto(customer);
+    }
+
+    @Benchmark
+    public CustomerResponseDto entityToResponseModelMapper() {
+        return modelMapper.map(customer, CustomerResponseDto.class);
+    }
+}
@@ -0,0 +1,96 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.TaskApplication;
+import com.theraven.task.customer.dto.CustomerRequestDto;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares loading managed entities and mapping them with selecting response DTOs directly,
+ * both inside a read-only transaction. Run with -PjmhProfilers=gc to compare the allocation rate per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerReadBenchmark {
+    private static final int SEEDED_CUSTOMERS = 10_000;
+    private static final int PAGE_SIZE = 20;
+
+    private ConfigurableApplicationContext context;
+    private CustomerRepository customerRepository;
+    private CustomerMapper customerMapper;
+    private TransactionTemplate readOnlyTransaction;
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TaskApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:read_benchmark", "logging.level.root=WARN")
+                .run();
+        customerRepository = context.getBean(CustomerRepository.class);
+        customerMapper = context.getBean(CustomerMapper.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        CustomerService customerService = context.getBean(CustomerService.class);
+        firstId = customerService.createCustomer(request(0)).getId();
+        for (int i = 1; i < SEEDED_CUSTOMERS; i++) {
+            customerService.createCustomer(request(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CustomerResponseDto getByIdEntity() {
+        return readOnlyTransaction.execute(status -> customerRepository.findByIdAndActiveTrue(randomId())
+                .map(customerMapper::mapEntityToResponseDto)
+                .orElseThrow());
+    }
+
+    @Benchmark
+    public CustomerResponseDto getByIdProjection() {
+        return readOnlyTransaction.execute(status -> customerRepository.findResponseById(randomId()).orElseThrow());
+    }
+
+    @Benchmark
+    public List<CustomerResponseDto> pageEntity() {
+        return readOnlyTransaction.execute(status -> customerRepository.findAll(randomPage()).stream()
+                .map(customerMapper::mapEntityToResponseDto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<CustomerResponseDto> pageProjection() {
+        return readOnlyTransaction.execute(status -> customerRepository.findResponsePage(randomPage()).getContent());
+    }
+
+    private long randomId() {
+        return firstId + ThreadLocalRandom.current().nextInt(SEEDED_CUSTOMERS);
+    }
+
+    private PageRequest randomPage() {
+        return PageRequest.of(ThreadLocalRandom.current().nextInt(SEEDED_CUSTOMERS / PAGE_SIZE), PAGE_SIZE);
+    }
+
+    private static CustomerRequestDto request(int i) {
+        return new CustomerRequestDto("Benchmark Customer", "reader" + i + "@example.com", "+31234567890");
+    }
+}
@@ -0,0 +1,109 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.TaskApplication;
+import com.theraven.task.customer.dto.CustomerCursorPageDto;
+import com.theraven.task.customer.dto.CustomerRequestDto;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import com.theraven.task.customer.dto.CustomerSliceDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the CustomerService operations end to end against an in-memory H2 database.
+ * The customer cache is benchmarked both disabled and enabled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CustomerServiceBenchmark {
+    private static final int SEEDED_CUSTOMERS = 10_000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "10000"})
+    public int cacheSize;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private long firstId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TaskApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark_" + cacheSize,
+                        "customer.cache.max-size=" + cacheSize,
+                        "logging.level.root=WARN")
+                .run();
+        customerService = context.getBean(CustomerService.class);
+
+        firstId = customerService.createCustomer(nextRequest()).getId();
+        for (int i = 1; i < SEEDED_CUSTOMERS; i++) {
+            customerService.createCustomer(nextRequest());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CustomerResponseDto create() {
+        return customerService.createCustomer(nextRequest());
+    }
+
+    @Benchmark
+    public CustomerResponseDto get() {
+        return customerService.getCustomerById(randomSeededId());
+    }
+
+    @Benchmark
+    public CustomerResponseDto update() {
+        CustomerResponseDto customer = customerService.getCustomerById(randomSeededId());
+        return customerService.updateCustomer(customer.getId(),
+                new CustomerRequestDto("Updated Name", customer.getEmail(), "+31234567890"));
+    }
+
+    @Benchmark
+    public void createAndDelete() {
+        customerService.deleteCustomer(customerService.createCustomer(nextRequest()).getId());
+    }
+
+    @Benchmark
+    public Page<CustomerResponseDto> listByOffset() {
+        return customerService.getAllCustomers(ThreadLocalRandom.current().nextInt(SEEDED_CUSTOMERS / PAGE_SIZE), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CustomerSliceDto listBySlice() {
+        return customerService.getCustomerSlice(ThreadLocalRandom.current().nextInt(SEEDED_CUSTOMERS / PAGE_SIZE),
+                PAGE_SIZE, true);
+    }
+
+    @Benchmark
+    public CustomerCursorPageDto listByCursor() {
+        return customerService.getAllCustomers(CursorUtils.encode(randomSeededId()), PAGE_SIZE);
+    }
+
+    private long randomSeededId() {
+        return firstId + ThreadLocalRandom.current().nextInt(SEEDED_CUSTOMERS);
+    }
+
+    private CustomerRequestDto nextRequest() {
+        return new CustomerRequestDto("Benchmark Customer", "customer" + sequence.incrementAndGet() + "@example.com",
+                "+31234567890");
+    }
+}
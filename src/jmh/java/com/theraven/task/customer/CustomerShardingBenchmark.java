@@ -0,0 +1,57 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.TaskApplication;
+import com.theraven.task.customer.dto.CustomerRequestDto;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of concurrent customer creation by number of shards.
+ * Shards are in-memory H2 databases of the same process, so the gain comes from spreading the writes
+ * over separate databases and pools rather than separate hardware.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class CustomerShardingBenchmark {
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Param({"1", "2", "4"})
+    private int shards;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TaskApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("customer.sharding.enabled=true", "customer.sharding.count=" + shards,
+                        "customer.sharding.url-template=jdbc:h2:mem:sharding_benchmark_" + shards
+                                + "_{shard};DB_CLOSE_DELAY=-1",
+                        "customer.email-filter.enabled=false", "logging.level.root=WARN")
+                .run();
+        customerService = context.getBean(CustomerService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public CustomerResponseDto create() {
+        return customerService.createCustomer(new CustomerRequestDto("Benchmark Customer",
+                "writer" + sequence.incrementAndGet() + "@example.com", "+31234567890"));
+    }
+}
@@ -0,0 +1,33 @@
+package com.theraven.task.errorhandling;
+
+import com.theraven.task.errorhandling.exception.CustomerNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building the error response of a missing customer, including the exception itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorUtilsBenchmark {
+
+    private final CustomerNotFoundException exception = new CustomerNotFoundException("Customer not found with ID: 1");
+
+    @Benchmark
+    public ResponseEntity<Object> buildExceptionBody() {
+        return ErrorUtils.buildExceptionBody(exception, HttpStatus.NOT_FOUND);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> createAndBuildExceptionBody() {
+        return ErrorUtils.buildExceptionBody(new CustomerNotFoundException("Customer not found with ID: 1"),
+                HttpStatus.NOT_FOUND);
+    }
+}
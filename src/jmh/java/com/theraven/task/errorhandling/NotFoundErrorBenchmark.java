@@ -0,0 +1,59 @@
+package com.theraven.task.errorhandling;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.theraven.task.errorhandling.exception.CustomerNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of answering a missing customer, from throwing the exception to the encoded body,
+ * between an exception capturing its stack trace serialized through an ErrorResponse and the object mapper,
+ * and the stackless exception encoded by {@link ErrorUtils#errorBody}. Run with -PjmhProfilers=gc to compare
+ * the allocation rate per error.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundErrorBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Benchmark
+    public byte[] stackTraceAndObjectMapper() throws Exception {
+        try {
+            throw new RuntimeException("Customer not found with ID: " + randomId());
+        } catch (RuntimeException exception) {
+            return objectMapper.writeValueAsBytes(ErrorResponse.builder()
+                    .statusCode(HttpStatus.NOT_FOUND.value())
+                    .timestamp(Instant.now())
+                    .message(HttpStatus.NOT_FOUND.name())
+                    .details(List.of(exception.getMessage()))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] stacklessAndPrecomputedBody() {
+        try {
+            throw new CustomerNotFoundException("Customer not found with ID: " + randomId());
+        } catch (CustomerNotFoundException exception) {
+            return ErrorUtils.errorBody(HttpStatus.NOT_FOUND, exception.getMessage());
+        }
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1_000_000);
+    }
+}
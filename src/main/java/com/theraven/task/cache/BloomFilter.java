@@ -0,0 +1,126 @@
+package com.theraven.task.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size Bloom filter of strings, safe for concurrent use without locking.
+ * <p>
+ * A negative answer is definite, a positive one may be false with a probability
+ * that grows with the number of inserted values. Values cannot be removed.
+ * The bit positions are derived from a single 64-bit hash with double hashing.
+ */
+public class BloomFilter {
+    private static final double LN2 = Math.log(2);
+    private static final int MAX_HASHES = 16;
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final LongAdder insertions = new LongAdder();
+
+    private BloomFilter(long bits, int hashes) {
+        this.words = new AtomicLongArray(Math.toIntExact((bits + 63) / 64));
+        this.bits = (long) words.length() * 64;
+        this.hashes = hashes;
+    }
+
+    /**
+     * Creates a filter sized for the expected number of values and false-positive rate,
+     * shrunk to the given memory budget if it does not fit, at the cost of a higher rate
+     *
+     * @param expectedInsertions the number of values the filter is expected to hold
+     * @param falsePositiveRate  the targeted probability of a false positive, between 0 and 1
+     * @param maxBytes           the maximum size of the bit array
+     * @return an empty filter
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate, long maxBytes) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+
+        long expected = Math.max(1, expectedInsertions);
+        long optimalBits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (LN2 * LN2));
+        long bits = Math.max(64, Math.min(optimalBits, Math.max(1, maxBytes) * 8));
+        int hashes = (int) Math.round((double) bits / expected * LN2);
+        return new BloomFilter(bits, Math.max(1, Math.min(MAX_HASHES, hashes)));
+    }
+
+    /**
+     * Adds the value to the filter
+     *
+     * @param value the value to add
+     */
+    public void put(CharSequence value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+        insertions.increment();
+    }
+
+    /**
+     * Tells whether the value may have been added to the filter
+     *
+     * @param value the value to check
+     * @return false if the value has definitely not been added, true if it may have been
+     */
+    public boolean mightContain(CharSequence value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the estimated false-positive rate for the number of values added so far
+     *
+     * @return the estimated probability of a false positive
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashes * insertions.sum() / bits), hashes);
+    }
+
+    public long bitSize() {
+        return bits;
+    }
+
+    public int hashCount() {
+        return hashes;
+    }
+
+    private long index(int combined) {
+        return (combined & 0xFFFFFFFFL) % bits;
+    }
+
+    /**
+     * FNV-1a over the characters, finished with the MurmurHash3 mixer so that both halves are well distributed
+     */
+    private static long hash(CharSequence value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,286 @@
+package com.theraven.task.cache;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Size-bounded, TTL-aware in-process cache.
+ * <p>
+ * Keys are spread over lock-striped segments, each one a small access-ordered map,
+ * so the least recently used entry of a segment is evicted once the segment is full.
+ * Absent values are cached as negative entries with their own, usually shorter, TTL.
+ * <p>
+ * A load racing with an invalidation of the same segment never stores its result,
+ * so a stale value cannot overwrite a newer state. Loads made while the store condition does not hold,
+ * such as reads from a lagging replica, are returned without being stored either.
+ *
+ * @param <K> the type of keys
+ * @param <V> the type of cached values
+ */
+public class BoundedTtlCache<K, V> {
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final BooleanSupplier storeLoads;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new cache
+     *
+     * @param maxSize     the maximum number of entries, 0 disables caching. The entries are divided among the segments,
+     *                    so below 16 entries the keys of some segments are never cached
+     * @param ttl         the time to live of regular entries
+     * @param negativeTtl the time to live of negative entries
+     */
+    public BoundedTtlCache(int maxSize, Duration ttl, Duration negativeTtl) {
+        this(maxSize, ttl, negativeTtl, () -> true);
+    }
+
+    /**
+     * Creates a new cache storing loaded values only while the given condition holds for the loading thread
+     *
+     * @param maxSize     the maximum number of entries, 0 disables caching. The entries are divided among the segments,
+     *                    so below 16 entries the keys of some segments are never cached
+     * @param ttl         the time to live of regular entries
+     * @param negativeTtl the time to live of negative entries
+     * @param storeLoads  tells whether the values loaded by the current thread may be stored
+     */
+    @SuppressWarnings("unchecked")
+    public BoundedTtlCache(int maxSize, Duration ttl, Duration negativeTtl, BooleanSupplier storeLoads) {
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.storeLoads = storeLoads;
+        this.segments = new Segment[SEGMENTS];
+
+        for (int i = 0; i < SEGMENTS; i++) {
+            int segmentSize = maxSize / SEGMENTS + (i < maxSize % SEGMENTS ? 1 : 0);
+            segments[i] = new Segment<>(segmentSize, evictions);
+        }
+    }
+
+    /**
+     * Returns the cached value, loading it on a miss
+     *
+     * @param key    the key of the value
+     * @param loader the function loading the value, returning null if it does not exist
+     * @return the value, or null if it does not exist
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Segment<K, V> segment = segmentFor(key);
+        long now = System.nanoTime();
+        long generation;
+
+        synchronized (segment) {
+            CacheEntry<V> entry = lookup(segment, key, now);
+            if (entry != null) {
+                return entry.value();
+            }
+            generation = segment.generation;
+        }
+
+        misses.increment();
+        V value = loader.apply(key);
+        if (!storeLoads.getAsBoolean()) {
+            return value;
+        }
+
+        synchronized (segment) {
+            if (segment.generation == generation) {
+                segment.store(key, value, System.nanoTime() + (value == null ? negativeTtlNanos : ttlNanos));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Returns the cached values of the given keys, loading all misses with a single call.
+     * Keys the loader returns no value for are cached as absent
+     *
+     * @param keys   the keys of the values
+     * @param loader the function loading the values of the missing keys, omitting the ones that do not exist
+     * @return the existing values by key, without the absent ones
+     */
+    public Map<K, V> getAll(Collection<? extends K> keys,
+                            Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> loader) {
+        Map<K, V> values = new HashMap<>();
+        Map<K, Long> generations = new LinkedHashMap<>();
+        long now = System.nanoTime();
+
+        for (K key : keys) {
+            if (values.containsKey(key) || generations.containsKey(key)) {
+                continue;
+            }
+
+            Segment<K, V> segment = segmentFor(key);
+            synchronized (segment) {
+                CacheEntry<V> entry = lookup(segment, key, now);
+                if (entry == null) {
+                    generations.put(key, segment.generation);
+                } else if (entry.value() != null) {
+                    values.put(key, entry.value());
+                }
+            }
+        }
+        if (generations.isEmpty()) {
+            return values;
+        }
+
+        misses.add(generations.size());
+        Map<? extends K, ? extends V> loaded = loader.apply(generations.keySet());
+        boolean store = storeLoads.getAsBoolean();
+
+        for (Map.Entry<K, Long> missing : generations.entrySet()) {
+            K key = missing.getKey();
+            V value = loaded.get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+
+            if (!store) {
+                continue;
+            }
+            Segment<K, V> segment = segmentFor(key);
+            synchronized (segment) {
+                if (segment.generation == missing.getValue()) {
+                    segment.store(key, value, System.nanoTime() + (value == null ? negativeTtlNanos : ttlNanos));
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the cached value without loading it or updating the counters
+     *
+     * @param key the key of the value
+     * @return the value, or null if it is not cached, expired or cached as absent
+     */
+    public V peek(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            CacheEntry<V> entry = segment.get(key);
+            return entry != null && entry.expiresAt() - System.nanoTime() > 0 ? entry.value() : null;
+        }
+    }
+
+    /**
+     * Stores the value of the given key, replacing the cached one
+     *
+     * @param key   the key of the value
+     * @param value the value to store
+     */
+    public void put(K key, V value) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.generation++;
+            segment.store(key, value, System.nanoTime() + ttlNanos);
+        }
+    }
+
+    /**
+     * Marks the key as absent, so lookups are answered without invoking the loader
+     *
+     * @param key the key to mark as absent
+     */
+    public void putAbsent(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.generation++;
+            segment.store(key, null, System.nanoTime() + negativeTtlNanos);
+        }
+    }
+
+    /**
+     * Removes the entry of the given key
+     *
+     * @param key the key to invalidate
+     */
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.generation++;
+            if (segment.remove(key) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the cache counters
+     *
+     * @return the cache statistics
+     */
+    public CacheStats stats() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+
+        return new CacheStats(hits.sum(), negativeHits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    /**
+     * Returns the live entry of the key, counting the hit, or null after dropping an expired one.
+     * Must be called while holding the lock of the segment
+     */
+    private CacheEntry<V> lookup(Segment<K, V> segment, K key, long now) {
+        CacheEntry<V> entry = segment.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() - now > 0) {
+            (entry.value() == null ? negativeHits : hits).increment();
+            return entry;
+        }
+
+        segment.remove(key);
+        evictions.increment();
+        return null;
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private record CacheEntry<V>(V value, long expiresAt) {
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, CacheEntry<V>> {
+        private final int maxSize;
+        private final LongAdder evictions;
+        private long generation;
+
+        private Segment(int maxSize, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.evictions = evictions;
+        }
+
+        private void store(K key, V value, long expiresAt) {
+            if (maxSize > 0) {
+                put(key, new CacheEntry<>(value, expiresAt));
+            }
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+            if (size() > maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+}
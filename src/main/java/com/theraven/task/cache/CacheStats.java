@@ -0,0 +1,19 @@
+package com.theraven.task.cache;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Snapshot of the counters of a {@link BoundedTtlCache}
+ */
+public record CacheStats(
+        @Schema(description = "Lookups answered with a cached value")
+        long hits,
+        @Schema(description = "Lookups answered with a cached negative entry")
+        long negativeHits,
+        @Schema(description = "Lookups that had to invoke the loader")
+        long misses,
+        @Schema(description = "Entries removed because of size, expiry or invalidation")
+        long evictions,
+        @Schema(description = "Current number of entries")
+        long size) {
+}
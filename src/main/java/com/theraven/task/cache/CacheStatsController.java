@@ -0,0 +1,24 @@
+package com.theraven.task.cache;
+
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller class exposing the counters of the in-process caches.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/cache")
+public class CacheStatsController {
+    private final BoundedTtlCache<Long, CustomerResponseDto> customerCache;
+
+    @GetMapping("/customers")
+    @Operation(summary = "Get customer cache statistics", description = "Retrieves hit, miss and eviction counters of the customer cache")
+    public CacheStats getCustomerCacheStats() {
+        return customerCache.stats();
+    }
+}
@@ -0,0 +1,36 @@
+package com.theraven.task.config;
+
+import com.theraven.task.datasource.AdmissionControlDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts an admission gate sized to the connection pool in front of the application DataSource.
+ * Meant for the virtual thread mode, where request concurrency is no longer bounded by the worker pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "customer.db.admission.enabled", havingValue = "true")
+public class AdmissionControlConfig {
+
+    @Bean
+    public static BeanPostProcessor admissionControlDataSourcePostProcessor(Environment environment) {
+        Duration timeout = environment.getProperty("customer.db.admission.timeout", Duration.class, Duration.ofSeconds(30));
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikariDataSource) {
+                    return new AdmissionControlDataSource(hikariDataSource, hikariDataSource.getMaximumPoolSize(), timeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
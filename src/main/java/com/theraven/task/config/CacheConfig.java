@@ -0,0 +1,54 @@
+package com.theraven.task.config;
+
+import com.theraven.task.cache.BoundedTtlCache;
+import com.theraven.task.cache.CacheStats;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import com.theraven.task.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToDoubleFunction;
+
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public BoundedTtlCache<Long, CustomerResponseDto> customerCache(@Value("${customer.cache.max-size}") int maxSize,
+                                                                    @Value("${customer.cache.ttl}") Duration ttl,
+                                                                    @Value("${customer.cache.negative-ttl}") Duration negativeTtl,
+                                                                    @Value("${customer.db.replica.enabled}") boolean replicaEnabled) {
+        // a lagging replica may return a row older than the one a write just invalidated, or none for a new customer
+        BooleanSupplier storeLoads = replicaEnabled
+                ? () -> ReadWriteRoutingDataSource.currentTarget() == ReadWriteRoutingDataSource.Target.PRIMARY
+                : () -> true;
+        return new BoundedTtlCache<>(maxSize, ttl, negativeTtl, storeLoads);
+    }
+
+    @Bean
+    public MeterBinder customerCacheMetrics(BoundedTtlCache<Long, CustomerResponseDto> customerCache) {
+        return registry -> {
+            cacheCounter(registry, customerCache, "hit", CacheStats::hits);
+            cacheCounter(registry, customerCache, "negative_hit", CacheStats::negativeHits);
+            cacheCounter(registry, customerCache, "miss", CacheStats::misses);
+            FunctionCounter.builder("customer.cache.evictions", customerCache, cache -> cache.stats().evictions())
+                    .register(registry);
+            Gauge.builder("customer.cache.size", customerCache, cache -> cache.stats().size())
+                    .register(registry);
+        };
+    }
+
+    private static void cacheCounter(MeterRegistry registry,
+                                     BoundedTtlCache<Long, CustomerResponseDto> customerCache,
+                                     String result, ToDoubleFunction<CacheStats> value) {
+        FunctionCounter.builder("customer.cache.gets", customerCache, cache -> value.applyAsDouble(cache.stats()))
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.theraven.task.config;
+
+import com.theraven.task.idempotency.IdempotencyFilter;
+import com.theraven.task.idempotency.IdempotencyStore;
+import com.theraven.task.idempotency.InMemoryIdempotencyStore;
+import com.theraven.task.idempotency.JdbcIdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Registers the Idempotency-Key handling of the customer writes, with the store selected by
+ * {@code customer.idempotency.store}: {@code memory} for a single instance, {@code jdbc} to share keys between instances.
+ */
+@Configuration
+@ConditionalOnProperty(name = "customer.idempotency.enabled", havingValue = "true")
+public class IdempotencyConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "customer.idempotency.store", havingValue = "memory")
+    public IdempotencyStore inMemoryIdempotencyStore(@Value("${customer.idempotency.max-entries}") int maxEntries,
+                                                     @Value("${customer.idempotency.ttl}") Duration ttl) {
+        return new InMemoryIdempotencyStore(maxEntries, ttl);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "customer.idempotency.store", havingValue = "jdbc")
+    public IdempotencyStore jdbcIdempotencyStore(DataSource dataSource,
+                                                 @Value("${customer.idempotency.ttl}") Duration ttl,
+                                                 @Value("${customer.idempotency.lock-timeout}") Duration lockTimeout) {
+        return new JdbcIdempotencyStore(dataSource, ttl, lockTimeout);
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore idempotencyStore,
+                                                                       @Value("${customer.idempotency.wait-timeout}") Duration wait) {
+        FilterRegistrationBean<IdempotencyFilter> registration =
+                new FilterRegistrationBean<>(new IdempotencyFilter(idempotencyStore, wait));
+        registration.addUrlPatterns("/api/customers", "/api/customers/*");
+        return registration;
+    }
+}
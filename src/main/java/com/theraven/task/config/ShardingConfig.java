@@ -0,0 +1,75 @@
+package com.theraven.task.config;
+
+import com.theraven.task.customer.CustomerShards;
+import com.theraven.task.datasource.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the application DataSource with {@code customer.sharding.count} shards.
+ * Every shard gets its own Hikari pool, configured by {@code spring.datasource.*} except for the URL, which is
+ * {@code customer.sharding.url-template} with {@code {shard}} replaced by the index of the shard.
+ * Flyway migrates every shard, and the pools are published as {@code hikaricp} meters tagged {@code shard-<index>}.
+ * Open-in-view must be disabled: the entity manager it keeps for the whole request holds on to the connection
+ * of its first transaction, so the work of every later shard would run on the first one.
+ */
+@Configuration
+@ConditionalOnProperty(name = "customer.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(DataSourceProperties properties,
+                                                         Environment environment,
+                                                         ObjectProvider<MeterRegistry> meterRegistry,
+                                                         CustomerShards customerShards,
+                                                         @Value("${customer.sharding.url-template}") String urlTemplate,
+                                                         @Value("${spring.jpa.open-in-view:true}") boolean openInView) {
+        if (openInView) {
+            throw new IllegalStateException("Sharding requires spring.jpa.open-in-view=false");
+        }
+
+        List<DataSource> shards = new ArrayList<>(customerShards.count());
+        for (int shard = 0; shard < customerShards.count(); shard++) {
+            HikariConfig config = new HikariConfig();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(config));
+            config.setPoolName("shard-" + shard);
+            config.setJdbcUrl(urlTemplate.replace("{shard}", Integer.toString(shard)));
+            config.setDriverClassName(properties.determineDriverClassName());
+            config.setUsername(properties.determineUsername());
+            config.setPassword(properties.determinePassword());
+            meterRegistry.ifAvailable(registry ->
+                    config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            shards.add(new HikariDataSource(config));
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(CustomerShards customerShards) {
+        return flyway -> customerShards.forEach(shard -> flyway.migrate());
+    }
+}
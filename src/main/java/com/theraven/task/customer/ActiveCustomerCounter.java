@@ -0,0 +1,58 @@
+package com.theraven.task.customer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps an approximate number of active customers.
+ * The value is adjusted incrementally on every create, reactivation and deletion
+ * and periodically reconciled with the database, so listings never have to count rows per request.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActiveCustomerCounter {
+    private static final long UNKNOWN = -1L;
+
+    private final CustomerRepository customerRepository;
+    private final CustomerShards customerShards;
+    private final AtomicLong count = new AtomicLong(UNKNOWN);
+
+    /**
+     * Reconciles the counter with the actual number of active customers
+     */
+    @Scheduled(fixedDelayString = "${customer.count-estimate.refresh-interval-ms:300000}")
+    public void refresh() {
+        long actual = customerShards.onEach(shard -> customerRepository.countByActiveTrue()).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        count.set(actual);
+        log.debug("Active customer estimate refreshed to {}", actual);
+    }
+
+    public void increment() {
+        add(1L);
+    }
+
+    public void decrement() {
+        add(-1L);
+    }
+
+    public void add(long delta) {
+        count.updateAndGet(value -> value == UNKNOWN ? UNKNOWN : Math.max(0L, value + delta));
+    }
+
+    /**
+     * Returns the approximate number of active customers
+     *
+     * @return the estimate, or null if the counter has not been initialized yet
+     */
+    public Long getEstimate() {
+        long value = count.get();
+        return value == UNKNOWN ? null : value;
+    }
+}
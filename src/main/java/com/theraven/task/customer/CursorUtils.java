@@ -0,0 +1,62 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.errorhandling.exception.CustomerValidationException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Utility class for encoding and decoding opaque pagination cursors
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class CursorUtils {
+
+    private static final String SEPARATOR = ":";
+
+    /**
+     * Encodes the given key values into an opaque, URL-safe cursor
+     *
+     * @param values The key values of the last returned row
+     * @return The encoded cursor
+     */
+    public static String encode(long... values) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            builder.append(values[i]);
+        }
+
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(builder.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode(long...)}
+     *
+     * @param cursor The cursor received from the client
+     * @param parts  The number of key values the cursor is expected to contain
+     * @return The decoded key values
+     * @throws CustomerValidationException if the cursor is malformed
+     */
+    public static long[] decode(String cursor, int parts) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            String[] tokens = decoded.split(SEPARATOR);
+            if (tokens.length != parts) {
+                throw new CustomerValidationException("Invalid cursor: " + cursor);
+            }
+
+            long[] values = new long[parts];
+            for (int i = 0; i < parts; i++) {
+                values[i] = Long.parseLong(tokens[i]);
+            }
+            return values;
+        } catch (IllegalArgumentException exception) {
+            throw new CustomerValidationException("Invalid cursor: " + cursor);
+        }
+    }
+}
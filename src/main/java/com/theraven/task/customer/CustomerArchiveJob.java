@@ -0,0 +1,80 @@
+package com.theraven.task.customer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Periodically moves customers deleted for longer than the retention period to the archive.
+ * Customers are moved in small batches, each committed on its own and followed by a pause,
+ * so row locks stay short and the database is not saturated. With sharding the shards are archived one after the other.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CustomerArchiveJob {
+
+    private final CustomerArchiveRepository customerArchiveRepository;
+    private final CustomerMetrics customerMetrics;
+    private final CustomerEntityCache customerEntityCache;
+    private final CustomerShards customerShards;
+
+    @Value("${customer.archive.after-days}")
+    private int afterDays;
+
+    @Value("${customer.archive.batch-size}")
+    private int batchSize;
+
+    @Value("${customer.archive.pause-ms}")
+    private long pauseMs;
+
+    /**
+     * Archives all customers deleted before the retention period, batch by batch
+     */
+    @Scheduled(fixedDelayString = "${customer.archive.interval-ms}",
+            initialDelayString = "${customer.archive.interval-ms}")
+    public void archive() {
+        long now = new Date().getTime();
+        long cutoff = now - Duration.ofDays(afterDays).toMillis();
+        customerShards.forEach(shard -> archive(cutoff, now));
+    }
+
+    private void archive(long cutoff, long now) {
+        long moved = 0;
+        long totalLockNanos = 0;
+        long maxLockNanos = 0;
+
+        int batchMoved;
+        do {
+            long start = System.nanoTime();
+            batchMoved = customerArchiveRepository.archiveBatch(cutoff, batchSize, now);
+            long lockNanos = System.nanoTime() - start;
+
+            customerMetrics.recordArchiveBatch(batchMoved, lockNanos);
+            moved += batchMoved;
+            totalLockNanos += lockNanos;
+            maxLockNanos = Math.max(maxLockNanos, lockNanos);
+        } while (batchMoved == batchSize && pause());
+
+        if (moved > 0) {
+            customerEntityCache.evictAll();
+            log.info("Archived {} customers deleted before {}, lock time {} ms in total, {} ms at most per batch",
+                    moved, cutoff, Duration.ofNanos(totalLockNanos).toMillis(), Duration.ofNanos(maxLockNanos).toMillis());
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.theraven.task.customer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Moves soft-deleted customers between the customer table and the customer_archive table
+ */
+@Repository
+@RequiredArgsConstructor
+public class CustomerArchiveRepository {
+    private static final String LOCK_EXPIRED = """
+            SELECT id
+            FROM customer
+            WHERE is_active = FALSE AND updated_at < :cutoff
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """;
+    private static final String DELETE_SUPERSEDED = """
+            DELETE FROM customer_archive
+            WHERE email IN (SELECT email FROM customer WHERE id IN (:ids))
+            """;
+    private static final String ARCHIVE = """
+            INSERT INTO customer_archive (id, created_at, updated_at, full_name, email, phone, version, archived_at)
+            SELECT id, created_at, updated_at, full_name, email, phone, version, :now
+            FROM customer
+            WHERE id IN (:ids)
+            """;
+    private static final String DELETE_ARCHIVED = "DELETE FROM customer WHERE id IN (:ids)";
+    private static final String SELECT_ARCHIVED_EMAILS = "SELECT email FROM customer_archive WHERE email IN (:emails)";
+    private static final String RESTORE = """
+            INSERT INTO customer (id, created_at, updated_at, full_name, email, phone, is_active, version)
+            SELECT a.id, a.created_at, a.updated_at, a.full_name, a.email, a.phone, FALSE, a.version
+            FROM customer_archive a
+            WHERE a.email IN (:emails)
+              AND NOT EXISTS (SELECT 1 FROM customer c WHERE c.email = a.email)
+            """;
+    // only the rows copied back, archived emails already present in the customer table stay archived
+    private static final String DELETE_RESTORED = """
+            DELETE FROM customer_archive a
+            WHERE a.email IN (:emails)
+              AND EXISTS (SELECT 1 FROM customer c WHERE c.id = a.id)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Moves a batch of customers deleted before the cutoff to the archive.
+     * The rows are locked first, so none of them can be reactivated while being moved.
+     * The locks are held until the surrounding transaction ends, which the caller keeps short
+     *
+     * @param cutoff the time before which the customers must have been deleted
+     * @param limit  the maximum number of customers to move
+     * @param now    the archival time
+     * @return the number of moved customers
+     */
+    @Transactional
+    public int archiveBatch(long cutoff, int limit, long now) {
+        List<Long> ids = jdbcTemplate.queryForList(LOCK_EXPIRED,
+                new MapSqlParameterSource("cutoff", cutoff).addValue("limit", limit), Long.class);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource("ids", ids).addValue("now", now);
+        jdbcTemplate.update(DELETE_SUPERSEDED, parameters);
+        jdbcTemplate.update(ARCHIVE, parameters);
+        return jdbcTemplate.update(DELETE_ARCHIVED, parameters);
+    }
+
+    /**
+     * Returns which of the given emails belong to archived customers, so that only those are restored
+     *
+     * @param emails the emails to look up
+     * @return the archived emails among the given ones
+     */
+    public List<String> findArchivedEmails(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbcTemplate.queryForList(SELECT_ARCHIVED_EMAILS, new MapSqlParameterSource("emails", emails),
+                String.class);
+    }
+
+    /**
+     * Moves the archived customers with the given emails back to the customer table, still deleted,
+     * so they can be reactivated like any other deleted customer.
+     * Archived copies of emails already present in the customer table are left in place
+     * and superseded once the present customer is archived
+     *
+     * @param emails the emails to restore
+     * @return the number of restored customers
+     */
+    @Transactional
+    public int restore(Collection<String> emails) {
+        if (emails.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource("emails", emails);
+        int restored = jdbcTemplate.update(RESTORE, parameters);
+        if (restored > 0) {
+            jdbcTemplate.update(DELETE_RESTORED, parameters);
+        }
+        return restored;
+    }
+}
@@ -0,0 +1,190 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.cache.BoundedTtlCache;
+import com.theraven.task.customer.dto.CustomerBatchItemResultDto;
+import com.theraven.task.customer.dto.CustomerBatchItemStatus;
+import com.theraven.task.customer.dto.CustomerRequestDto;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import com.theraven.task.errorhandling.exception.CustomerValidationException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service creating customers in bulk.
+ * Items are processed in chunks, each one checked for existing emails with a single query
+ * and inserted with batched statements in its own transaction.
+ * With sharding the IDs of batched inserts could not carry the shard, so items are upserted one by one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CustomerBatchService {
+
+    private final CustomerMapper customerMapper;
+    private final CustomerService customerService;
+    private final CustomerRepository customerRepository;
+    private final CustomerSearchRepository customerSearchRepository;
+    private final CustomerArchiveRepository customerArchiveRepository;
+    private final CustomerEmailFilter customerEmailFilter;
+    private final ActiveCustomerCounter activeCustomerCounter;
+    private final BoundedTtlCache<Long, CustomerResponseDto> customerCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final CustomerShards customerShards;
+
+    @Value("${customer.batch.max-size}")
+    private int maxSize;
+
+    @Value("${customer.batch.chunk-size}")
+    private int chunkSize;
+
+    /**
+     * Creates or reactivates the given customers, reporting a result per item
+     *
+     * @param customerRequestDtos the dto objects of the new customers
+     * @return the result of every item, in request order
+     * @throws CustomerValidationException if the batch exceeds the maximum size
+     */
+    public List<CustomerBatchItemResultDto> createCustomers(List<CustomerRequestDto> customerRequestDtos) {
+        if (customerRequestDtos.size() > maxSize) {
+            throw new CustomerValidationException("Batch size must not exceed " + maxSize);
+        }
+
+        List<CustomerBatchItemResultDto> results = new ArrayList<>(customerRequestDtos.size());
+        for (int from = 0; from < customerRequestDtos.size(); from += chunkSize) {
+            int to = Math.min(customerRequestDtos.size(), from + chunkSize);
+            results.addAll(createChunk(customerRequestDtos.subList(from, to), from));
+        }
+        return results;
+    }
+
+    /**
+     * Creates or reactivates a chunk of customers in a single transaction.
+     * Falls back to item by item processing if a concurrent write makes the chunk violate the email constraint
+     *
+     * @param chunk  the dto objects of the chunk
+     * @param offset the position of the first item of the chunk in the whole batch
+     * @return the result of every item of the chunk, in order
+     */
+    public List<CustomerBatchItemResultDto> createChunk(List<CustomerRequestDto> chunk, int offset) {
+        CustomerBatchItemResultDto[] results = new CustomerBatchItemResultDto[chunk.size()];
+        Map<String, Integer> pending = new LinkedHashMap<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            CustomerRequestDto requestDto = chunk.get(i);
+            List<String> errors = validate(requestDto);
+            if (!errors.isEmpty()) {
+                results[i] = new CustomerBatchItemResultDto(offset + i, CustomerBatchItemStatus.INVALID, null, errors);
+            } else if (pending.putIfAbsent(requestDto.getEmail(), i) != null) {
+                results[i] = duplicate(offset + i, requestDto.getEmail());
+            }
+        }
+
+        if (customerShards.isSharded()) {
+            pending.values().forEach(i -> results[i] = createSingle(chunk.get(i), offset + i));
+        } else if (!pending.isEmpty()) {
+            try {
+                saveChunk(chunk, offset, pending, results);
+            } catch (DataIntegrityViolationException exception) {
+                log.warn("Chunk at offset {} conflicts with a concurrent write, retrying item by item", offset);
+                pending.values().forEach(i -> results[i] = createSingle(chunk.get(i), offset + i));
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private void saveChunk(List<CustomerRequestDto> chunk, int offset, Map<String, Integer> pending,
+                           CustomerBatchItemResultDto[] results) {
+        Set<String> reactivated = new HashSet<>();
+        // emails ruled out by the filter are inserted without being looked up
+        List<String> known = pending.keySet().stream()
+                .filter(customerEmailFilter::mightExist)
+                .toList();
+        List<Customer> saved = transactionTemplate.execute(status -> {
+            Map<String, Customer> existing = known.isEmpty() ? Map.of() : findExisting(known);
+
+            List<Customer> toSave = new ArrayList<>(pending.size());
+            for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+                int i = entry.getValue();
+                Customer customer = existing.get(entry.getKey());
+                if (customer == null) {
+                    toSave.add(customerMapper.mapRequestDtoToEntity(chunk.get(i)));
+                } else if (!customer.isActive()) {
+                    customer.setActive(true);
+                    customer.setUpdatedAt(new Date().getTime());
+                    customer.setFullName(chunk.get(i).getFullName());
+                    customer.setPhone(chunk.get(i).getPhone());
+                    toSave.add(customer);
+                    reactivated.add(customer.getEmail());
+                } else {
+                    results[i] = duplicate(offset + i, entry.getKey());
+                }
+            }
+            return customerRepository.saveAll(toSave);
+        });
+
+        for (Customer customer : saved) {
+            int i = pending.get(customer.getEmail());
+            CustomerBatchItemStatus status = reactivated.contains(customer.getEmail())
+                    ? CustomerBatchItemStatus.REACTIVATED : CustomerBatchItemStatus.CREATED;
+            if (status == CustomerBatchItemStatus.CREATED) {
+                customerEmailFilter.add(customer.getEmail());
+            }
+            results[i] = new CustomerBatchItemResultDto(offset + i, status,
+                    customerMapper.mapEntityToResponseDto(customer), null);
+            customerCache.invalidate(customer.getId());
+            customerSearchRepository.index(customer);
+        }
+        activeCustomerCounter.add(saved.size());
+    }
+
+    /**
+     * Selects the customers having the given emails, restoring the archived customers among the emails not found
+     */
+    private Map<String, Customer> findExisting(Collection<String> emails) {
+        Map<String, Customer> existing = customerRepository.findAllByEmailIn(emails).stream()
+                .collect(Collectors.toMap(Customer::getEmail, Function.identity(), (first, second) -> first,
+                        HashMap::new));
+
+        List<String> archived = customerArchiveRepository.findArchivedEmails(emails.stream()
+                .filter(email -> !existing.containsKey(email))
+                .toList());
+        if (!archived.isEmpty() && customerArchiveRepository.restore(archived) > 0) {
+            customerRepository.findAllByEmailIn(archived).forEach(customer -> existing.put(customer.getEmail(), customer));
+        }
+        return existing;
+    }
+
+    private CustomerBatchItemResultDto createSingle(CustomerRequestDto requestDto, int index) {
+        CustomerUpsertResult result = customerService.upsertCustomer(requestDto);
+        return switch (result.outcome()) {
+            case CREATED -> new CustomerBatchItemResultDto(index, CustomerBatchItemStatus.CREATED,
+                    customerMapper.mapEntityToResponseDto(result.customer()), null);
+            case REACTIVATED -> new CustomerBatchItemResultDto(index, CustomerBatchItemStatus.REACTIVATED,
+                    customerMapper.mapEntityToResponseDto(result.customer()), null);
+            case CONFLICT -> duplicate(index, requestDto.getEmail());
+        };
+    }
+
+    private List<String> validate(CustomerRequestDto requestDto) {
+        Set<ConstraintViolation<CustomerRequestDto>> violations = validator.validate(requestDto);
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .toList();
+    }
+
+    private static CustomerBatchItemResultDto duplicate(int index, String email) {
+        return new CustomerBatchItemResultDto(index, CustomerBatchItemStatus.DUPLICATE, null,
+                List.of("User with email " + email + " already exists."));
+    }
+}
@@ -0,0 +1,134 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.cache.BoundedTtlCache;
+import com.theraven.task.customer.dto.CustomerBulkRequestDto;
+import com.theraven.task.customer.dto.CustomerBulkResultDto;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import com.theraven.task.errorhandling.exception.CustomerValidationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Service deleting and reactivating customers in bulk.
+ * Customers are changed by set-based UPDATE statements over chunks of IDs, each one committed on its own,
+ * without loading the entities. With sharding the chunks are formed and committed per shard.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CustomerBulkService {
+
+    private final CustomerRepository customerRepository;
+    private final CustomerSearchRepository customerSearchRepository;
+    private final ActiveCustomerCounter activeCustomerCounter;
+    private final BoundedTtlCache<Long, CustomerResponseDto> customerCache;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomerShards customerShards;
+
+    @Value("${customer.bulk.max-ids}")
+    private int maxIds;
+
+    @Value("${customer.bulk.chunk-size}")
+    private int chunkSize;
+
+    /**
+     * Soft deletes the given active customers
+     *
+     * @param requestDto the IDs of the customers, or the filter selecting them
+     * @return the number of deleted customers and, for IDs, the number of IDs not found or already deleted
+     * @throws CustomerValidationException if neither or both of IDs and filter are given, or there are too many IDs
+     */
+    public CustomerBulkResultDto deleteCustomers(CustomerBulkRequestDto requestDto) {
+        return apply(requestDto, false);
+    }
+
+    /**
+     * Reactivates the given deleted customers
+     *
+     * @param requestDto the IDs of the customers, or the filter selecting them
+     * @return the number of reactivated customers and, for IDs, the number of IDs not found or already active
+     * @throws CustomerValidationException if neither or both of IDs and filter are given, or there are too many IDs
+     */
+    public CustomerBulkResultDto reactivateCustomers(CustomerBulkRequestDto requestDto) {
+        return apply(requestDto, true);
+    }
+
+    private CustomerBulkResultDto apply(CustomerBulkRequestDto requestDto, boolean active) {
+        if ((requestDto.getIds() == null) == (requestDto.getCreatedBefore() == null)) {
+            throw new CustomerValidationException("Exactly one of ids and createdBefore must be given");
+        }
+
+        CustomerBulkResultDto result = requestDto.getIds() != null
+                ? applyToIds(requestDto.getIds(), active)
+                : applyCreatedBefore(requestDto.getCreatedBefore(), active);
+        log.info("{} {} customers in bulk", active ? "Reactivated" : "Deleted", result.getAffected());
+        return result;
+    }
+
+    private CustomerBulkResultDto applyToIds(List<Long> requestedIds, boolean active) {
+        List<Long> ids = requestedIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.size() > maxIds) {
+            throw new CustomerValidationException("Number of IDs must not exceed " + maxIds);
+        }
+
+        long affected = 0;
+        for (Map.Entry<Integer, List<Long>> shardIds : customerShards.groupByShard(ids).entrySet()) {
+            List<Long> onShard = shardIds.getValue();
+            affected += customerShards.on(shardIds.getKey(), () -> {
+                long changed = 0;
+                for (int from = 0; from < onShard.size(); from += chunkSize) {
+                    changed += applyToChunk(onShard.subList(from, Math.min(onShard.size(), from + chunkSize)),
+                            active);
+                }
+                return changed;
+            });
+        }
+        return new CustomerBulkResultDto(affected, ids.size() - affected);
+    }
+
+    private CustomerBulkResultDto applyCreatedBefore(long createdBefore, boolean active) {
+        long[] affected = {0};
+        customerShards.forEach(shard -> {
+            long afterId = 0L;
+            List<Long> ids;
+            do {
+                ids = customerRepository.findIdsCreatedBefore(createdBefore, !active, afterId,
+                        PageRequest.of(0, chunkSize));
+                if (!ids.isEmpty()) {
+                    affected[0] += applyToChunk(ids, active);
+                    afterId = ids.get(ids.size() - 1);
+                }
+            } while (ids.size() == chunkSize);
+        });
+
+        return new CustomerBulkResultDto(affected[0], null);
+    }
+
+    private int applyToChunk(List<Long> ids, boolean active) {
+        long now = new Date().getTime();
+        Integer affected = transactionTemplate.execute(status -> active
+                ? customerRepository.activateAllById(ids, now)
+                : customerRepository.deactivateAllById(ids, now));
+        int changed = affected == null ? 0 : affected;
+
+        if (active) {
+            ids.forEach(customerCache::invalidate);
+            customerSearchRepository.indexAll(ids);
+            activeCustomerCounter.add(changed);
+        } else {
+            ids.forEach(customerCache::putAbsent);
+            ids.forEach(customerSearchRepository::remove);
+            activeCustomerCounter.add(-changed);
+        }
+        return changed;
+    }
+}
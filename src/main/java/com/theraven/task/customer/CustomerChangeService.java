@@ -0,0 +1,80 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.customer.dto.CustomerChangeDto;
+import com.theraven.task.customer.dto.CustomerChangePageDto;
+import com.theraven.task.datasource.ReadWriteRoutingDataSource;
+import com.theraven.task.errorhandling.exception.CustomerValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Service exposing the customer changes as a feed, so mirrors only transfer what changed since their last sync.
+ * <p>
+ * Changes are ordered by modification time and ID. The modification time is set before the writing transaction
+ * commits, so changes younger than the safety lag are held back until any transaction that could still commit
+ * an older time has finished. Deleted customers stay in the table and are returned as tombstones
+ * until they are archived. The feed is always read from the primary, as a lagging replica could hide changes
+ * older than the safety lag and the cursor would move past them.
+ */
+@Service
+@RequiredArgsConstructor
+public class CustomerChangeService {
+    private static final int MAX_SIZE = 1000;
+    private static final Comparator<CustomerChangeDto> ORDER = Comparator.comparing(CustomerChangeDto::getUpdatedAt)
+            .thenComparing(CustomerChangeDto::getId);
+
+    private final CustomerRepository customerRepository;
+    private final CustomerShards customerShards;
+
+    @Value("${customer.changes.safety-lag}")
+    private Duration safetyLag;
+
+    /**
+     * Retrieves the changes following the given cursor
+     *
+     * @param since the cursor returned by the previous call, empty to start from the beginning
+     * @param size  the maximum number of changes, at most 1000
+     * @return the changes along with the cursor to continue from
+     * @throws CustomerValidationException if the cursor is malformed or the size is out of range
+     */
+    @Transactional(readOnly = true)
+    public CustomerChangePageDto getChanges(String since, int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new CustomerValidationException("Page size must be between 1 and " + MAX_SIZE);
+        }
+
+        long[] after = since.isEmpty() ? new long[]{Long.MIN_VALUE, 0L} : CursorUtils.decode(since, 2);
+        long until = new Date().getTime() - safetyLag.toMillis();
+        List<CustomerChangeDto> changes;
+        try (ReadWriteRoutingDataSource.PrimaryPin ignored = ReadWriteRoutingDataSource.pinPrimary()) {
+            PageRequest pageRequest = PageRequest.of(0, size + 1);
+            changes = CustomerShards.merge(customerShards.onEach(shard -> customerRepository.findChangesAfter(after[0],
+                    after[1], until, pageRequest)), ORDER, size + 1);
+        }
+
+        boolean hasMore = changes.size() > size;
+        if (hasMore) {
+            changes = changes.subList(0, size);
+        }
+        if (changes.isEmpty()) {
+            return new CustomerChangePageDto(changes, since.isEmpty() ? null : since, false);
+        }
+
+        changes.stream().filter(CustomerChangeDto::isDeleted).forEach(change -> {
+            change.setFullName(null);
+            change.setEmail(null);
+            change.setPhone(null);
+        });
+
+        CustomerChangeDto last = changes.get(changes.size() - 1);
+        return new CustomerChangePageDto(changes, CursorUtils.encode(last.getUpdatedAt(), last.getId()), hasMore);
+    }
+}
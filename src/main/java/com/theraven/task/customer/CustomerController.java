@@ -1,22 +1,39 @@
 package com.theraven.task.customer;
 
+import com.theraven.task.customer.dto.CustomerBatchItemResultDto;
+import com.theraven.task.customer.dto.CustomerBulkRequestDto;
+import com.theraven.task.customer.dto.CustomerBulkResultDto;
+import com.theraven.task.customer.dto.CustomerChangePageDto;
+import com.theraven.task.customer.dto.CustomerCursorPageDto;
+import com.theraven.task.customer.dto.CustomerImportSummaryDto;
+import com.theraven.task.customer.dto.CustomerMultiGetDto;
 import com.theraven.task.customer.dto.CustomerRequestDto;
 import com.theraven.task.customer.dto.CustomerResponseDto;
+import com.theraven.task.customer.dto.CustomerSliceDto;
 import com.theraven.task.errorhandling.ErrorResponse;
 import com.theraven.task.errorhandling.ErrorUtils;
 import com.theraven.task.errorhandling.exception.CustomerValidationException;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.List;
 
 /**
  * Controller class for handling customer-related operations.
@@ -26,6 +43,12 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/customers")
 public class CustomerController {
     private final CustomerService customerService;
+    private final CustomerBatchService customerBatchService;
+    private final CustomerBulkService customerBulkService;
+    private final CustomerChangeService customerChangeService;
+    private final CustomerExportService customerExportService;
+    private final CustomerImportService customerImportService;
+    private final CustomerLookupService customerLookupService;
 
     @PostMapping
     @ApiResponses(value = {
@@ -48,6 +71,75 @@ public class CustomerController {
         return ResponseEntity.status(HttpStatus.CREATED).body(customerService.createCustomer(requestDto));
     }
 
+    @PostMapping("/batch")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the result of every item", content = {
+                    @Content(mediaType = "application/json", array =
+                    @ArraySchema(schema = @Schema(implementation = CustomerBatchItemResultDto.class)))
+            }),
+            @ApiResponse(responseCode = "400", description = "Batch exceeds the maximum size",
+                    content = @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @Operation(summary = "Create customers in batch",
+            description = "Creates or reactivates customers in bulk, reporting a result per item")
+    public List<CustomerBatchItemResultDto> createCustomers(@RequestBody List<CustomerRequestDto> requestDtos) {
+        return customerBatchService.createCustomers(requestDtos);
+    }
+
+    @DeleteMapping
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customers deleted", content = {
+                    @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = CustomerBulkResultDto.class))
+            }),
+            @ApiResponse(responseCode = "400", description = "Invalid selection or too many IDs",
+                    content = @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @Operation(summary = "Delete customers in bulk",
+            description = "Deletes the customers with the given IDs, or all customers created before the given time")
+    public CustomerBulkResultDto deleteCustomers(@RequestBody CustomerBulkRequestDto requestDto) {
+        return customerBulkService.deleteCustomers(requestDto);
+    }
+
+    @PostMapping("/reactivate")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customers reactivated", content = {
+                    @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = CustomerBulkResultDto.class))
+            }),
+            @ApiResponse(responseCode = "400", description = "Invalid selection or too many IDs",
+                    content = @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @Operation(summary = "Reactivate customers in bulk",
+            description = "Reactivates the deleted customers with the given IDs, "
+                    + "or all deleted customers created before the given time")
+    public CustomerBulkResultDto reactivateCustomers(@RequestBody CustomerBulkRequestDto requestDto) {
+        return customerBulkService.reactivateCustomers(requestDto);
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import processed, one summary line is streamed per committed chunk", content = {
+                    @Content(mediaType = "application/x-ndjson", schema =
+                    @Schema(implementation = CustomerImportSummaryDto.class))
+            })
+    })
+    @Operation(summary = "Import customers",
+            description = "Creates or reactivates customers from an NDJSON or CSV stream of any size")
+    public void importCustomers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CustomerFileFormat format = CustomerFileFormat.ofMediaType(MediaType.parseMediaType(request.getContentType()));
+
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType("application/x-ndjson");
+        customerImportService.importCustomers(format, request.getInputStream(), response.getOutputStream());
+    }
+
     @GetMapping
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "List of customers retrieved", content = {
@@ -61,6 +153,134 @@ public class CustomerController {
         return customerService.getAllCustomers(page, size);
     }
 
+    @GetMapping(params = "count=false")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Slice of customers retrieved", content = {
+                    @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = CustomerSliceDto.class))
+            })
+    })
+    @Operation(summary = "Get all customers without counting",
+            description = "Retrieves a page of customers without the total count, optionally with an approximate total")
+    public CustomerSliceDto getCustomerSlice(@RequestParam(defaultValue = "0") int page,
+                                             @RequestParam(defaultValue = "10") int size,
+                                             @RequestParam(defaultValue = "false") boolean estimate) {
+        return customerService.getCustomerSlice(page, size, estimate);
+    }
+
+    @GetMapping(params = "cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of customers retrieved", content = {
+                    @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = CustomerCursorPageDto.class))
+            }),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size",
+                    content = @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @Operation(summary = "Get all customers by cursor",
+            description = "Retrieves customers ordered by ID using keyset pagination, pass an empty cursor for the first page")
+    public CustomerCursorPageDto getAllCustomersByCursor(@RequestParam(defaultValue = "") String cursor,
+                                                         @RequestParam(defaultValue = "10") int size) {
+        return customerService.getAllCustomers(cursor, size);
+    }
+
+    @GetMapping(params = "ids")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customers retrieved", content = {
+                    @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = CustomerMultiGetDto.class))
+            }),
+            @ApiResponse(responseCode = "400", description = "Too many IDs",
+                    content = @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @Operation(summary = "Get customers by IDs",
+            description = "Retrieves the customers with the given comma separated IDs in request order, "
+                    + "listing the IDs not found")
+    public CustomerMultiGetDto getCustomersByIds(@RequestParam List<Long> ids) {
+        return customerLookupService.getCustomersByIds(ids);
+    }
+
+    @PostMapping("/lookup")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customers retrieved", content = {
+                    @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = CustomerMultiGetDto.class))
+            }),
+            @ApiResponse(responseCode = "400", description = "Too many IDs",
+                    content = @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @Operation(summary = "Look up customers by IDs",
+            description = "Retrieves the customers with the IDs of the request body in request order, "
+                    + "listing the IDs not found. Meant for ID sets too large for a query string")
+    public CustomerMultiGetDto lookupCustomers(@RequestBody List<Long> ids) {
+        return customerLookupService.getCustomersByIds(ids);
+    }
+
+    @GetMapping("/search")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page of matching customers retrieved", content = {
+                    @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = CustomerCursorPageDto.class))
+            }),
+            @ApiResponse(responseCode = "400", description = "Query too short, invalid cursor or page size",
+                    content = @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @Operation(summary = "Search customers",
+            description = "Searches customers by part of their full name, email or phone, exact and prefix matches first")
+    public CustomerCursorPageDto searchCustomers(@RequestParam String q,
+                                                 @RequestParam(defaultValue = "") String cursor,
+                                                 @RequestParam(defaultValue = "10") int size) {
+        return customerService.searchCustomers(q, cursor, size);
+    }
+
+    @GetMapping("/changes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Changes retrieved", content = {
+                    @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = CustomerChangePageDto.class))
+            }),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size",
+                    content = @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @Operation(summary = "Get customer changes",
+            description = "Retrieves customers created, updated or deleted since the given cursor, oldest first. "
+                    + "Deleted customers are returned as tombstones, pass an empty cursor to start from the beginning")
+    public CustomerChangePageDto getCustomerChanges(@RequestParam(defaultValue = "") String since,
+                                                    @RequestParam(defaultValue = "100") int size) {
+        return customerChangeService.getChanges(since, size);
+    }
+
+    @GetMapping("/export")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Customers streamed", content = {
+                    @Content(mediaType = "application/x-ndjson"),
+                    @Content(mediaType = "text/csv"),
+                    @Content(mediaType = "application/cbor-seq")
+            }),
+            @ApiResponse(responseCode = "400", description = "Unsupported format",
+                    content = @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @Operation(summary = "Export customers", description = "Streams all active customers as NDJSON, CSV or a CBOR sequence")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(@RequestParam(defaultValue = "ndjson") String format) {
+        CustomerFileFormat exportFormat = CustomerFileFormat.of(format);
+
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .body(outputStream -> customerExportService.exportCustomers(exportFormat, outputStream));
+    }
+
     @PutMapping("/{id}")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Customer updated successfully", content = {
@@ -74,17 +294,25 @@ public class CustomerController {
             @ApiResponse(responseCode = "404", description = "Customer not found",
                     content = @Content(mediaType = "application/json", schema =
                     @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(responseCode = "412", description = "Customer was modified since the given ETag",
+                    content = @Content(mediaType = "application/json", schema =
+                    @Schema(implementation = ErrorResponse.class))
             )
     })
-    @Operation(summary = "Update customer", description = "Updates a customer in the application")
+    @Operation(summary = "Update customer", description = "Updates a customer in the application, "
+            + "only if it still matches the If-Match header when one is sent")
     public ResponseEntity<CustomerResponseDto> updateCustomer(@PathVariable Long id,
                                                               @Valid @RequestBody CustomerRequestDto requestDto,
-                                                              BindingResult bindingResult) {
+                                                              BindingResult bindingResult,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH,
+                                                                      required = false) String ifMatch) {
         if (bindingResult.hasErrors()) {
             throw new CustomerValidationException(ErrorUtils.handleValidationErrors(bindingResult).toString());
         }
 
-        return ResponseEntity.ok(customerService.updateCustomer(id, requestDto));
+        CustomerResponseDto responseDto = customerService.updateCustomer(id, requestDto, ifMatch);
+        return ResponseEntity.ok().eTag(CustomerEtags.of(responseDto)).body(responseDto);
     }
 
     @GetMapping("/{id}")
@@ -93,14 +321,26 @@ public class CustomerController {
                     @Content(mediaType = "application/json", schema =
                     @Schema(implementation = CustomerResponseDto.class))
             }),
+            @ApiResponse(responseCode = "304", description = "Customer not modified since the given ETag"),
             @ApiResponse(responseCode = "404", description = "Customer not found",
                     content = @Content(mediaType = "application/json", schema =
                     @Schema(implementation = ErrorResponse.class))
             )
     })
-    @Operation(summary = "Get customer by ID", description = "Retrieves a customer from the application by ID")
-    public ResponseEntity<CustomerResponseDto> getCustomerById(@PathVariable Long id) {
-        return ResponseEntity.ok(customerService.getCustomerById(id));
+    @Operation(summary = "Get customer by ID", description = "Retrieves a customer from the application by ID, "
+            + "answering 304 when the If-None-Match header holds its current ETag")
+    public ResponseEntity<CustomerResponseDto> getCustomerById(@PathVariable Long id,
+                                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH,
+                                                                       required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String etag = CustomerEtags.of(id, customerService.getCustomerVersion(id));
+            if (CustomerEtags.matches(ifNoneMatch, etag, true)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+        }
+
+        CustomerResponseDto responseDto = customerService.getCustomerById(id);
+        return ResponseEntity.ok().eTag(CustomerEtags.of(responseDto)).body(responseDto);
     }
 
     @DeleteMapping("/{id}")
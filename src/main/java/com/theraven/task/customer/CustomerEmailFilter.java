@@ -0,0 +1,146 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.cache.BloomFilter;
+import com.theraven.task.datasource.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Bloom filter of every email stored in the customer and customer_archive tables.
+ * <p>
+ * Almost every created customer has a new email, so the lookups made before inserting one
+ * are skipped when the filter rules the email out; the unique constraint on the email stays the safety net.
+ * The filter is filled by a streaming scan at startup and rebuilt periodically to shed the bits
+ * of long gone emails and to resize for growth. Until the first scan completes every email may exist.
+ */
+@Slf4j
+@Component
+public class CustomerEmailFilter implements MeterBinder {
+    // a single statement, so an email being archived during the scan is seen in one of the tables
+    private static final String SELECT_EMAILS = "SELECT email FROM customer UNION ALL SELECT email FROM customer_archive";
+    private static final String COUNT_EMAILS =
+            "SELECT (SELECT COUNT(*) FROM customer) + (SELECT COUNT(*) FROM customer_archive)";
+    private static final int FETCH_SIZE = 1000;
+    // room for the table to double before the next rebuild without exceeding the targeted rate
+    private static final int GROWTH_FACTOR = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomerMetrics customerMetrics;
+    private final CustomerShards customerShards;
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final DataSize maxSize;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+
+    public CustomerEmailFilter(DataSource dataSource,
+                               PlatformTransactionManager transactionManager,
+                               CustomerMetrics customerMetrics,
+                               CustomerShards customerShards,
+                               @Value("${customer.email-filter.enabled}") boolean enabled,
+                               @Value("${customer.email-filter.false-positive-rate}") double falsePositiveRate,
+                               @Value("${customer.email-filter.max-size}") DataSize maxSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        // PostgreSQL only honours the fetch size inside a transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.customerMetrics = customerMetrics;
+        this.customerShards = customerShards;
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Tells whether a customer with the given email may exist, recording whether the lookup can be skipped
+     *
+     * @param email the email to check
+     * @return false if no customer has the email, true if one may have it
+     */
+    public boolean mightExist(String email) {
+        BloomFilter current = filter;
+        boolean mightExist = current == null || current.mightContain(email);
+        customerMetrics.recordEmailLookup(!mightExist);
+        return mightExist;
+    }
+
+    /**
+     * Adds the email of a stored customer. Must be called once the customer has been committed,
+     * so that a concurrent rebuild either scans the customer or receives the email
+     *
+     * @param email the email to add
+     */
+    public void add(String email) {
+        BloomFilter next = building;
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(email);
+        }
+        if (next != null) {
+            next.put(email);
+        }
+    }
+
+    /**
+     * Rebuilds the filter from the emails of the tables, sized for the current number of rows.
+     * Emails added while the tables are scanned go to both the old and the new filter
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${customer.email-filter.rebuild-interval-ms}",
+            initialDelayString = "${customer.email-filter.rebuild-interval-ms}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        long rows = customerShards.onEach(shard -> jdbcTemplate.queryForObject(COUNT_EMAILS, Long.class)).stream()
+                .mapToLong(count -> count == null ? 0 : count)
+                .sum();
+        BloomFilter next = BloomFilter.create(rows * GROWTH_FACTOR, falsePositiveRate, maxSize.toBytes());
+        building = next;
+        // a replica could miss emails committed just before the scan started
+        try (ReadWriteRoutingDataSource.PrimaryPin ignored = ReadWriteRoutingDataSource.pinPrimary()) {
+            customerShards.forEach(shard -> transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.query(SELECT_EMAILS, (RowCallbackHandler) resultSet -> next.put(resultSet.getString(1)))));
+            filter = next;
+        } finally {
+            building = null;
+        }
+
+        log.info("Email filter built with {} emails in {} ms, {} bits and {} hashes, expected false-positive rate {}",
+                rows, Duration.ofNanos(System.nanoTime() - start).toMillis(), next.bitSize(), next.hashCount(),
+                next.expectedFalsePositiveRate());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("customer.email-filter.size", this, emailFilter -> emailFilter.filter == null
+                        ? 0 : emailFilter.filter.bitSize() / 8.0)
+                .description("Memory used by the bits of the email filter")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("customer.email-filter.false-positive-rate", this, emailFilter -> emailFilter.filter == null
+                        ? 1 : emailFilter.filter.expectedFalsePositiveRate())
+                .description("Estimated probability that the email filter lets a new email through")
+                .register(registry);
+    }
+}
@@ -0,0 +1,65 @@
+package com.theraven.task.customer;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts customers from the Hibernate second-level cache after writes Hibernate does not see.
+ * <p>
+ * Entities are cached in the {@value #ENTITY_REGION} region and the results of the lookups by ID and email
+ * in the {@value #LOOKUP_REGION} region. Writes through the entity manager keep both consistent on their own,
+ * while native statements, such as upserts and archival, must evict what they changed. Lookups are evicted
+ * as a whole, the same as Hibernate does for any write to the table, since a new row can change
+ * a result cached as empty.
+ */
+@Component
+@RequiredArgsConstructor
+public class CustomerEntityCache {
+    public static final String ENTITY_REGION = "customer";
+    public static final String LOOKUP_REGION = "customer-lookups";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Evicts the customer with the given ID along with all cached lookups,
+     * again once the current transaction completes so a concurrent read cannot cache the old row meanwhile
+     *
+     * @param id the ID of the customer
+     */
+    public void evict(Long id) {
+        evictNowAndAfterCompletion(() -> {
+            entityManagerFactory.getCache().evict(Customer.class, id);
+            evictLookups();
+        });
+    }
+
+    /**
+     * Evicts all customers and all cached lookups, for statements changing an unknown set of customers
+     */
+    public void evictAll() {
+        evictNowAndAfterCompletion(() -> {
+            entityManagerFactory.getCache().evict(Customer.class);
+            evictLookups();
+        });
+    }
+
+    private void evictLookups() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegion(LOOKUP_REGION);
+    }
+
+    private static void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
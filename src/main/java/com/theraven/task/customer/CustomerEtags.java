@@ -0,0 +1,64 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Utility class for building and comparing the entity tags of customers.
+ * A tag changes whenever the customer is modified, as it is derived from the ID and the version, incremented by every write
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class CustomerEtags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    /**
+     * Builds the strong entity tag of a customer
+     *
+     * @param id      The ID of the customer
+     * @param version The version of the customer
+     * @return The quoted entity tag
+     */
+    public static String of(Long id, Long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Builds the strong entity tag of a customer
+     *
+     * @param responseDto The customer information
+     * @return The quoted entity tag
+     */
+    public static String of(CustomerResponseDto responseDto) {
+        return of(responseDto.getId(), responseDto.getVersion());
+    }
+
+    /**
+     * Checks whether a conditional header lists the given entity tag
+     *
+     * @param header The value of an If-Match or If-None-Match header
+     * @param etag   The current entity tag
+     * @param weak   Whether weak tags are compared too, as required for If-None-Match
+     * @return true if the header is a wildcard or contains the tag
+     */
+    public static boolean matches(String header, String etag, boolean weak) {
+        if (header.trim().equals("*")) {
+            return true;
+        }
+
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith(WEAK_PREFIX)) {
+                if (!weak) {
+                    continue;
+                }
+                tag = tag.substring(WEAK_PREFIX.length());
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,268 @@
+package com.theraven.task.customer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Service streaming all active customers.
+ * Rows are read through a forward-only cursor and written to the output as they arrive,
+ * so memory usage does not depend on the number of customers.
+ * With sharding every shard is read in keyset pages of the fetch size, merged by ID as they arrive.
+ */
+@Slf4j
+@Service
+public class CustomerExportService {
+    private static final String SELECT_ACTIVE_CUSTOMERS =
+            "SELECT id, full_name, email, phone FROM customer WHERE is_active ORDER BY id";
+    private static final String SELECT_ACTIVE_CUSTOMERS_AFTER_ID =
+            "SELECT id, full_name, email, phone FROM customer WHERE is_active AND id > ? ORDER BY id LIMIT ?";
+    private static final String CSV_HEADER = "id,fullName,email,phone";
+    // field names are encoded once and copied into every row
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString FULL_NAME = new SerializedString("fullName");
+    private static final SerializedString EMAIL = new SerializedString("email");
+    private static final SerializedString PHONE = new SerializedString("phone");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final CustomerShards customerShards;
+    private final CBORFactory cborFactory = new CBORFactory();
+    private final int fetchSize;
+
+    public CustomerExportService(DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 CustomerShards customerShards,
+                                 @Value("${customer.export.fetch-size}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // PostgreSQL only honours the fetch size inside a transaction
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.customerShards = customerShards;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes all active customers to the given stream
+     *
+     * @param format       the format of the export
+     * @param outputStream the stream to write to
+     */
+    public void exportCustomers(CustomerFileFormat format, OutputStream outputStream) {
+        long started = System.currentTimeMillis();
+        // shards are read by separate threads, each page in its own statement
+        long rows = customerShards.isSharded()
+                ? write(format, outputStream)
+                : transactionTemplate.execute(status -> write(format, outputStream));
+        log.info("Exported {} customers as {} in {} ms", rows, format, System.currentTimeMillis() - started);
+    }
+
+    private long write(CustomerFileFormat format, OutputStream outputStream) {
+        return switch (format) {
+            case NDJSON -> writeNdjson(outputStream);
+            case CSV -> writeCsv(outputStream);
+            case CBOR -> writeCbor(outputStream);
+        };
+    }
+
+    private long writeNdjson(OutputStream outputStream) {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            long rows = writeObjects(generator);
+            generator.writeRaw('\n');
+            return rows;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private long writeCbor(OutputStream outputStream) {
+        try (JsonGenerator generator = cborFactory.createGenerator(outputStream)) {
+            return writeObjects(generator);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private long writeObjects(JsonGenerator generator) {
+        return stream((id, fullName, email, phone) -> {
+            generator.writeStartObject();
+            generator.writeFieldName(ID);
+            generator.writeNumber(id);
+            generator.writeFieldName(FULL_NAME);
+            generator.writeString(fullName);
+            generator.writeFieldName(EMAIL);
+            generator.writeString(email);
+            generator.writeFieldName(PHONE);
+            generator.writeString(phone);
+            generator.writeEndObject();
+        }, generator::flush);
+    }
+
+    private long writeCsv(OutputStream outputStream) {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+            return stream((id, fullName, email, phone) -> {
+                writer.write(Long.toString(id));
+                writer.write(',');
+                writeCsvField(writer, fullName);
+                writer.write(',');
+                writeCsvField(writer, email);
+                writer.write(',');
+                writeCsvField(writer, phone);
+                writer.write('\n');
+            }, writer::flush);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Runs the export query, handing every row to the writer and flushing once per fetched batch,
+     * so the first bytes reach the client before the query has been read to the end
+     */
+    private long stream(RowWriter rowWriter, Flusher flusher) {
+        if (customerShards.isSharded()) {
+            return streamShards(rowWriter, flusher);
+        }
+
+        long[] rows = {0};
+        jdbcTemplate.query(SELECT_ACTIVE_CUSTOMERS, (RowCallbackHandler) resultSet -> {
+            try {
+                rowWriter.write(resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3),
+                        resultSet.getString(4));
+                long written = ++rows[0];
+                if (written == 1 || written % fetchSize == 0) {
+                    flusher.flush();
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+        return rows[0];
+    }
+
+    /**
+     * Merges the shards by ID, refilling in parallel the pages of the shards that have run out.
+     * A row is only written once every shard with rows left has a page to compare it with
+     */
+    private long streamShards(RowWriter rowWriter, Flusher flusher) {
+        int count = customerShards.count();
+        List<Deque<ExportRow>> pages = new ArrayList<>(count);
+        long[] lastIds = new long[count];
+        boolean[] exhausted = new boolean[count];
+        for (int shard = 0; shard < count; shard++) {
+            pages.add(new ArrayDeque<>());
+        }
+
+        long rows = 0;
+        try {
+            while (true) {
+                List<List<ExportRow>> fetched = customerShards.onEach(shard ->
+                        exhausted[shard] || !pages.get(shard).isEmpty() ? List.of() : fetchPage(lastIds[shard]));
+                for (int shard = 0; shard < count; shard++) {
+                    List<ExportRow> page = fetched.get(shard);
+                    if (exhausted[shard] || !pages.get(shard).isEmpty()) {
+                        continue;
+                    }
+                    exhausted[shard] = page.size() < fetchSize;
+                    if (!page.isEmpty()) {
+                        lastIds[shard] = page.get(page.size() - 1).id();
+                        pages.get(shard).addAll(page);
+                    }
+                }
+
+                int next;
+                while ((next = nextShard(pages, exhausted)) >= 0) {
+                    ExportRow row = pages.get(next).poll();
+                    rowWriter.write(row.id(), row.fullName(), row.email(), row.phone());
+                    if (++rows == 1) {
+                        flusher.flush();
+                    }
+                }
+                flusher.flush();
+                if (next == -1) {
+                    return rows;
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Returns the shard holding the lowest pending ID, -1 if all shards are done,
+     * or -2 if a shard must be refilled first
+     */
+    private static int nextShard(List<Deque<ExportRow>> pages, boolean[] exhausted) {
+        int next = -1;
+        for (int shard = 0; shard < pages.size(); shard++) {
+            ExportRow head = pages.get(shard).peek();
+            if (head == null) {
+                if (!exhausted[shard]) {
+                    return -2;
+                }
+            } else if (next < 0 || head.id() < pages.get(next).peek().id()) {
+                next = shard;
+            }
+        }
+        return next;
+    }
+
+    private List<ExportRow> fetchPage(long afterId) {
+        return jdbcTemplate.query(SELECT_ACTIVE_CUSTOMERS_AFTER_ID, (resultSet, rowNum) -> new ExportRow(
+                resultSet.getLong(1), resultSet.getString(2), resultSet.getString(3), resultSet.getString(4)),
+                afterId, fetchSize);
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        boolean quoted = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quoted) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(long id, String fullName, String email, String phone) throws IOException;
+    }
+
+    private record ExportRow(long id, String fullName, String email, String phone) {
+    }
+
+    @FunctionalInterface
+    private interface Flusher {
+        void flush() throws IOException;
+    }
+}
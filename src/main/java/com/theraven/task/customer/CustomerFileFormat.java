@@ -0,0 +1,52 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.errorhandling.exception.CustomerValidationException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+
+/**
+ * Formats supported by the customer export and import.
+ * CBOR, written as a sequence of CBOR items, is only supported by the export
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CustomerFileFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8")),
+    CBOR(MediaType.parseMediaType("application/cbor-seq"));
+
+    private final MediaType mediaType;
+
+    /**
+     * Resolves a format by its case-insensitive name
+     *
+     * @param value The name of the format
+     * @return The matching format
+     * @throws CustomerValidationException if the format is not supported
+     */
+    public static CustomerFileFormat of(String value) {
+        for (CustomerFileFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new CustomerValidationException("Unsupported format: " + value);
+    }
+
+    /**
+     * Resolves a format by its media type, ignoring parameters such as the charset
+     *
+     * @param mediaType The media type of the content
+     * @return The matching format
+     * @throws CustomerValidationException if the media type is not supported
+     */
+    public static CustomerFileFormat ofMediaType(MediaType mediaType) {
+        for (CustomerFileFormat format : values()) {
+            if (format.mediaType.equalsTypeAndSubtype(mediaType)) {
+                return format;
+            }
+        }
+        throw new CustomerValidationException("Unsupported media type: " + mediaType);
+    }
+}
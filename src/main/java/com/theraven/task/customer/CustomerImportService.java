@@ -0,0 +1,174 @@
+package com.theraven.task.customer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theraven.task.customer.dto.CustomerBatchItemResultDto;
+import com.theraven.task.customer.dto.CustomerBatchItemStatus;
+import com.theraven.task.customer.dto.CustomerImportSummaryDto;
+import com.theraven.task.customer.dto.CustomerRequestDto;
+import com.theraven.task.errorhandling.exception.CustomerValidationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service importing customers from an NDJSON or CSV stream of any size.
+ * Records are parsed one line at a time and upserted in fixed-size chunks, each committed on its own,
+ * so memory usage does not depend on the size of the input and a bad row only affects itself.
+ * Reading is blocking, so a client sending faster than chunks are committed is slowed down by TCP flow control.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CustomerImportService {
+    private static final String CSV_FULL_NAME = "fullName";
+    private static final String CSV_EMAIL = "email";
+    private static final String CSV_PHONE = "phone";
+
+    private final CustomerBatchService customerBatchService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${customer.batch.chunk-size}")
+    private int chunkSize;
+
+    /**
+     * Imports the customers of the given stream, writing a summary line after every committed chunk
+     *
+     * @param format       the format of the input
+     * @param inputStream  the stream to read the customers from
+     * @param outputStream the stream to write the summary lines to
+     * @throws IOException if reading the input or writing the summary fails
+     */
+    public void importCustomers(CustomerFileFormat format, InputStream inputStream, OutputStream outputStream)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        RecordParser parser = format == CustomerFileFormat.CSV ? csvParser(reader.readLine()) : this::parseJson;
+
+        CustomerImportSummaryDto summary = new CustomerImportSummaryDto();
+        List<CustomerRequestDto> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                chunk.add(parser.parse(line));
+            } catch (CustomerValidationException exception) {
+                summary.count(CustomerBatchItemStatus.INVALID);
+            }
+
+            if (chunk.size() == chunkSize) {
+                flushChunk(chunk, summary, outputStream);
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            flushChunk(chunk, summary, outputStream);
+        }
+        summary.setCompleted(true);
+        writeSummary(summary, outputStream);
+        log.info("Imported customers: {}", summary);
+    }
+
+    private void flushChunk(List<CustomerRequestDto> chunk, CustomerImportSummaryDto summary,
+                            OutputStream outputStream) throws IOException {
+        for (CustomerBatchItemResultDto result : customerBatchService.createChunk(chunk, 0)) {
+            summary.count(result.getStatus());
+        }
+        chunk.clear();
+        writeSummary(summary, outputStream);
+    }
+
+    private void writeSummary(CustomerImportSummaryDto summary, OutputStream outputStream) throws IOException {
+        outputStream.write(objectMapper.writeValueAsBytes(summary));
+        outputStream.write('\n');
+        outputStream.flush();
+    }
+
+    private CustomerRequestDto parseJson(String line) {
+        try {
+            CustomerRequestDto customer = objectMapper.readValue(line, CustomerRequestDto.class);
+            if (customer == null) {
+                throw new CustomerValidationException("Malformed record: expected a JSON object");
+            }
+            return customer;
+        } catch (JsonProcessingException exception) {
+            throw new CustomerValidationException("Malformed record: " + exception.getOriginalMessage());
+        }
+    }
+
+    private RecordParser csvParser(String header) {
+        if (header == null) {
+            return line -> new CustomerRequestDto();
+        }
+
+        List<String> columns = parseCsvLine(header);
+        int fullName = columns.indexOf(CSV_FULL_NAME);
+        int email = columns.indexOf(CSV_EMAIL);
+        int phone = columns.indexOf(CSV_PHONE);
+        if (fullName < 0 || email < 0) {
+            throw new CustomerValidationException("CSV header must contain the fullName and email columns");
+        }
+
+        return line -> {
+            List<String> values = parseCsvLine(line);
+            if (values.size() != columns.size()) {
+                throw new CustomerValidationException("Malformed record: expected " + columns.size() + " columns");
+            }
+            return new CustomerRequestDto(values.get(fullName), values.get(email), phone < 0 ? null : values.get(phone));
+        };
+    }
+
+    /**
+     * Splits a CSV line into its fields.
+     * Fields may be quoted, with quotes escaped by doubling them, but may not span several lines.
+     * Empty unquoted fields are read as null.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                values.add(value.isEmpty() && !wasQuoted ? null : value.toString());
+                value.setLength(0);
+                wasQuoted = false;
+            } else {
+                value.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new CustomerValidationException("Malformed record: unterminated quoted field");
+        }
+        values.add(value.isEmpty() && !wasQuoted ? null : value.toString());
+        return values;
+    }
+
+    @FunctionalInterface
+    private interface RecordParser {
+        CustomerRequestDto parse(String line);
+    }
+}
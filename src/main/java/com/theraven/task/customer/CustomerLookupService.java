@@ -0,0 +1,83 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.cache.BoundedTtlCache;
+import com.theraven.task.customer.dto.CustomerMultiGetDto;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import com.theraven.task.datasource.ReadWriteRoutingDataSource;
+import com.theraven.task.errorhandling.exception.CustomerValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Service retrieving many customers by ID at once.
+ * Lookups are served from the customer cache first, the misses are selected with one IN query per chunk.
+ * With sharding the misses are split by shard and the shards are queried in parallel.
+ * Misses are read from the primary, so that a lagging replica cannot fill the cache with old rows.
+ */
+@Service
+@RequiredArgsConstructor
+public class CustomerLookupService {
+
+    private final CustomerRepository customerRepository;
+    private final BoundedTtlCache<Long, CustomerResponseDto> customerCache;
+    private final CustomerShards customerShards;
+
+    @Value("${customer.lookup.max-ids}")
+    private int maxIds;
+
+    @Value("${customer.lookup.chunk-size}")
+    private int chunkSize;
+
+    /**
+     * Retrieves the active customers with the given IDs
+     *
+     * @param ids the IDs of the customers, duplicates are returned once
+     * @return the customers found and the IDs not found, both in request order
+     * @throws CustomerValidationException if there are too many IDs
+     */
+    public CustomerMultiGetDto getCustomersByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > maxIds) {
+            throw new CustomerValidationException("Number of IDs must not exceed " + maxIds);
+        }
+
+        Map<Long, CustomerResponseDto> found;
+        try (ReadWriteRoutingDataSource.PrimaryPin ignored = ReadWriteRoutingDataSource.pinPrimary()) {
+            found = customerCache.getAll(requested, this::load);
+        }
+
+        List<CustomerResponseDto> content = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>(requested.size() - found.size());
+        for (Long id : requested) {
+            CustomerResponseDto responseDto = found.get(id);
+            if (responseDto == null) {
+                missing.add(id);
+            } else {
+                content.add(responseDto);
+            }
+        }
+        return new CustomerMultiGetDto(content, missing);
+    }
+
+    private Map<Long, CustomerResponseDto> load(Set<Long> ids) {
+        Map<Integer, List<Long>> byShard = customerShards.groupByShard(ids);
+        Map<Long, CustomerResponseDto> loaded = new HashMap<>();
+        customerShards.onEach(shard -> loadChunks(byShard.getOrDefault(shard, List.of())))
+                .forEach(responseDtos -> responseDtos.forEach(responseDto ->
+                        loaded.put(responseDto.getId(), responseDto)));
+        return loaded;
+    }
+
+    private List<CustomerResponseDto> loadChunks(List<Long> ids) {
+        List<CustomerResponseDto> loaded = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            loaded.addAll(customerRepository.findResponsesByIdIn(ids.subList(from,
+                    Math.min(ids.size(), from + chunkSize))));
+        }
+        return loaded;
+    }
+}
@@ -2,24 +2,25 @@ package com.theraven.task.customer;
 
 import com.theraven.task.customer.dto.CustomerRequestDto;
 import com.theraven.task.customer.dto.CustomerResponseDto;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 /**
  * The CustomerMapper class is responsible for mapping between Customer entities and DTOs
- * It utilizes the ModelMapper library for the mapping process.
+ * Fields are copied explicitly, without reflection, as mapping sits on every read and write path.
  */
 @Component
-@RequiredArgsConstructor
 public class CustomerMapper {
-    private final ModelMapper modelMapper;
 
     public Customer mapRequestDtoToEntity(CustomerRequestDto customerRequestDto) {
-        return modelMapper.map(customerRequestDto, Customer.class);
+        Customer customer = new Customer();
+        customer.setFullName(customerRequestDto.getFullName());
+        customer.setEmail(customerRequestDto.getEmail());
+        customer.setPhone(customerRequestDto.getPhone());
+        return customer;
     }
 
     public CustomerResponseDto mapEntityToResponseDto(Customer customer) {
-        return modelMapper.map(customer, CustomerResponseDto.class);
+        return new CustomerResponseDto(customer.getId(), customer.getFullName(), customer.getEmail(),
+                customer.getPhone(), customer.getVersion());
     }
 }
@@ -0,0 +1,128 @@
+package com.theraven.task.customer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Customer specific meters, complementing the HTTP, repository and connection pool metrics provided by Actuator.
+ * All meters share the {@code customer} prefix, so {@code management.metrics.enable.customer=false}
+ * replaces them with no-op meters.
+ */
+@Component
+public class CustomerMetrics {
+
+    private final Timer mappingTimer;
+    private final DistributionSummary offsetRows;
+    private final DistributionSummary sliceRows;
+    private final DistributionSummary cursorRows;
+    private final DistributionSummary searchRows;
+    private final Counter archivedRows;
+    private final Timer archiveLockTimer;
+    private final Counter skippedEmailLookups;
+    private final Counter performedEmailLookups;
+
+    public CustomerMetrics(MeterRegistry meterRegistry) {
+        this.mappingTimer = Timer.builder("customer.mapping")
+                .description("Time spent mapping customer entities to response DTOs")
+                .register(meterRegistry);
+        this.offsetRows = rowsFetched(meterRegistry, "offset");
+        this.sliceRows = rowsFetched(meterRegistry, "slice");
+        this.cursorRows = rowsFetched(meterRegistry, "cursor");
+        this.searchRows = rowsFetched(meterRegistry, "search");
+        this.archivedRows = Counter.builder("customer.archive.rows")
+                .description("Deleted customers moved to the archive")
+                .register(meterRegistry);
+        this.archiveLockTimer = Timer.builder("customer.archive.lock")
+                .description("Time customer rows stay locked per archival batch")
+                .register(meterRegistry);
+        this.skippedEmailLookups = emailLookups(meterRegistry, "skipped");
+        this.performedEmailLookups = emailLookups(meterRegistry, "performed");
+    }
+
+    /**
+     * Runs the given mapping, recording the time it takes
+     *
+     * @param mapping the mapping to run
+     * @param <T>     the type of the mapping result
+     * @return the result of the mapping
+     */
+    public <T> T timeMapping(Supplier<T> mapping) {
+        return mappingTimer.record(mapping);
+    }
+
+    /**
+     * Records the number of rows returned by an offset paginated list call
+     *
+     * @param rows the number of rows
+     */
+    public void recordOffsetRows(int rows) {
+        offsetRows.record(rows);
+    }
+
+    /**
+     * Records the number of rows returned by a list call without count
+     *
+     * @param rows the number of rows
+     */
+    public void recordSliceRows(int rows) {
+        sliceRows.record(rows);
+    }
+
+    /**
+     * Records the number of rows returned by a cursor paginated list call
+     *
+     * @param rows the number of rows
+     */
+    public void recordCursorRows(int rows) {
+        cursorRows.record(rows);
+    }
+
+    /**
+     * Records the number of rows returned by a search call
+     *
+     * @param rows the number of rows
+     */
+    public void recordSearchRows(int rows) {
+        searchRows.record(rows);
+    }
+
+    /**
+     * Records an archival batch
+     *
+     * @param rows      the number of archived rows
+     * @param lockNanos the time the rows stayed locked, in nanoseconds
+     */
+    public void recordArchiveBatch(int rows, long lockNanos) {
+        archivedRows.increment(rows);
+        archiveLockTimer.record(lockNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a lookup of an email before a customer is created
+     *
+     * @param skipped whether the email filter ruled the email out, so the lookup was skipped
+     */
+    public void recordEmailLookup(boolean skipped) {
+        (skipped ? skippedEmailLookups : performedEmailLookups).increment();
+    }
+
+    private static DistributionSummary rowsFetched(MeterRegistry meterRegistry, String pagination) {
+        return DistributionSummary.builder("customer.list.rows")
+                .description("Rows fetched per customer list call")
+                .tag("pagination", pagination)
+                .register(meterRegistry);
+    }
+
+    private static Counter emailLookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("customer.email-filter.lookups")
+                .description("Email lookups before creating customers, by whether the email filter skipped them")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
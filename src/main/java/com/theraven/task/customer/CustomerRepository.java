@@ -1,37 +1,178 @@
 package com.theraven.task.customer;
 
+import com.theraven.task.customer.dto.CustomerChangeDto;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
+    String RESPONSE_DTO = "new com.theraven.task.customer.dto.CustomerResponseDto("
+            + "c.id, c.fullName, c.email, c.phone, c.version)";
 
     /**
-     * Retrieves a customer by their email address
+     * Retrieves a customer by their email address, cached in the lookup region of the second-level cache
      *
      * @param email The email address of the customer to retrieve
      * @return Optional containing the customer if found, otherwise empty
      */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CustomerEntityCache.LOOKUP_REGION)})
     Optional<Customer> findByEmail(String email);
 
+    /**
+     * Retrieves the customers with any of the given email addresses, active or not
+     *
+     * @param emails The email addresses of the customers to retrieve
+     * @return List of the customers found
+     */
+    List<Customer> findAllByEmailIn(Collection<String> emails);
+
     /**
      * x
-     * Retrieves an active customer by their ID
+     * Retrieves an active customer by their ID, cached in the lookup region of the second-level cache
      *
      * @param id The ID of the customer to retrieve
      * @return Optional containing the active customer if found, otherwise empty
      */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CustomerEntityCache.LOOKUP_REGION)})
     Optional<Customer> findByIdAndActiveTrue(Long id);
 
     /**
-     * Retrieves a page of active customers
+     * Counts the active customers
+     *
+     * @return The number of active customers
+     */
+    long countByActiveTrue();
+
+    /**
+     * Retrieves an active customer by their ID, selected straight into the response DTO
+     *
+     * @param id The ID of the customer to retrieve
+     * @return Optional containing the active customer if found, otherwise empty
+     */
+    @Query("SELECT " + RESPONSE_DTO + " FROM Customer c WHERE c.id = :id AND c.active = true")
+    Optional<CustomerResponseDto> findResponseById(@Param("id") Long id);
+
+    /**
+     * Retrieves the active customers among the given IDs, selected straight into response DTOs
+     *
+     * @param ids The IDs of the customers to retrieve
+     * @return List of the active customers found, in no particular order
+     */
+    @Query("SELECT " + RESPONSE_DTO + " FROM Customer c WHERE c.id IN :ids AND c.active = true")
+    List<CustomerResponseDto> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves the version of an active customer, enough to validate an entity tag
+     *
+     * @param id The ID of the customer
+     * @return Optional containing the version if the customer is active, otherwise empty
+     */
+    @Query("SELECT c.version FROM Customer c WHERE c.id = :id AND c.active = true")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    /**
+     * Retrieves a page of active customers, selected straight into response DTOs
      *
      * @param pageable The pagination information
      * @return Page containing active customers
      */
-    Page<Customer> findAllByActiveTrue(Pageable pageable);
+    @Query(value = "SELECT " + RESPONSE_DTO + " FROM Customer c WHERE c.active = true",
+            countQuery = "SELECT COUNT(c) FROM Customer c WHERE c.active = true")
+    Page<CustomerResponseDto> findResponsePage(Pageable pageable);
+
+    /**
+     * Retrieves a slice of active customers without counting the total number of rows,
+     * selected straight into response DTOs
+     *
+     * @param pageable The pagination information
+     * @return Slice containing active customers
+     */
+    @Query("SELECT " + RESPONSE_DTO + " FROM Customer c WHERE c.active = true")
+    Slice<CustomerResponseDto> findResponseSlice(Pageable pageable);
+
+    /**
+     * Retrieves active customers with an ID greater than the given one, ordered by ID
+     * and selected straight into response DTOs.
+     * Backed by the primary key index, so the cost does not depend on how deep the client pages
+     *
+     * @param id    The ID of the last customer of the previous page
+     * @param limit The maximum number of customers to return, as the size of the first page
+     * @return List of active customers following the given ID
+     */
+    @Query("SELECT " + RESPONSE_DTO + " FROM Customer c WHERE c.id > :id AND c.active = true ORDER BY c.id")
+    List<CustomerResponseDto> findResponsesAfterId(@Param("id") Long id, Pageable limit);
+
+    /**
+     * Retrieves the customers, active or deleted, changed after the given position and not after the given time,
+     * ordered by modification time and ID.
+     * Backed by the (updated_at, id) index
+     *
+     * @param updatedAt The modification time of the last change of the previous page
+     * @param id        The ID of the last change of the previous page
+     * @param until     The latest modification time to include
+     * @param limit     The maximum number of changes to return, as the size of the first page
+     * @return List of changes following the given position
+     */
+    @Query("SELECT new com.theraven.task.customer.dto.CustomerChangeDto("
+            + "c.id, c.fullName, c.email, c.phone, c.updatedAt, CASE WHEN c.active = true THEN false ELSE true END) "
+            + "FROM Customer c "
+            + "WHERE (c.updatedAt > :updatedAt OR (c.updatedAt = :updatedAt AND c.id > :id)) "
+            + "AND c.updatedAt <= :until "
+            + "ORDER BY c.updatedAt, c.id")
+    List<CustomerChangeDto> findChangesAfter(@Param("updatedAt") Long updatedAt, @Param("id") Long id,
+                                             @Param("until") Long until, Pageable limit);
+
+    /**
+     * Retrieves the IDs of customers in the given state created before the given time, ordered by ID
+     *
+     * @param createdBefore The creation time to select customers before
+     * @param active        The state of the customers to select
+     * @param id            The ID of the last customer of the previous chunk
+     * @param limit         The maximum number of IDs to return, as the size of the first page
+     * @return List of IDs following the given ID
+     */
+    @Query("SELECT c.id FROM Customer c WHERE c.createdAt < :createdBefore AND c.active = :active AND c.id > :id "
+            + "ORDER BY c.id")
+    List<Long> findIdsCreatedBefore(@Param("createdBefore") Long createdBefore, @Param("active") boolean active,
+                                    @Param("id") Long id, Pageable limit);
+
+    /**
+     * Soft deletes the active customers among the given IDs with a single statement
+     *
+     * @param ids The IDs of the customers to delete
+     * @param now The deletion time
+     * @return The number of deleted customers
+     */
+    @Modifying
+    @Query("UPDATE Customer c SET c.active = false, c.updatedAt = :now, c.version = c.version + 1 "
+            + "WHERE c.id IN :ids AND c.active = true")
+    int deactivateAllById(@Param("ids") Collection<Long> ids, @Param("now") Long now);
+
+    /**
+     * Reactivates the deleted customers among the given IDs with a single statement
+     *
+     * @param ids The IDs of the customers to reactivate
+     * @param now The reactivation time
+     * @return The number of reactivated customers
+     */
+    @Modifying
+    @Query("UPDATE Customer c SET c.active = true, c.updatedAt = :now, c.version = c.version + 1 "
+            + "WHERE c.id IN :ids AND c.active = false")
+    int activateAllById(@Param("ids") Collection<Long> ids, @Param("now") Long now);
 }
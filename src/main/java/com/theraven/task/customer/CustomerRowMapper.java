@@ -0,0 +1,26 @@
+package com.theraven.task.customer;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps a full customer row read through plain JDBC
+ */
+class CustomerRowMapper implements RowMapper<Customer> {
+    static final CustomerRowMapper INSTANCE = new CustomerRowMapper();
+
+    @Override
+    public Customer mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        return new Customer(
+                resultSet.getLong("id"),
+                resultSet.getLong("created_at"),
+                resultSet.getLong("updated_at"),
+                resultSet.getString("full_name"),
+                resultSet.getString("email"),
+                resultSet.getString("phone"),
+                resultSet.getBoolean("is_active"),
+                resultSet.getLong("version"));
+    }
+}
@@ -0,0 +1,23 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.customer.dto.CustomerResponseDto;
+
+import java.util.Comparator;
+
+/**
+ * A customer matching a search query, along with how closely it matches
+ *
+ * @param rank     0 if a field equals the query, 1 if a field starts with it, 2 if a field contains it
+ * @param customer the matching customer
+ */
+public record CustomerSearchHit(int rank, CustomerResponseDto customer) {
+    public static final int EXACT = 0;
+    public static final int PREFIX = 1;
+    public static final int SUBSTRING = 2;
+
+    /**
+     * Order of search results, by rank and then ID
+     */
+    public static final Comparator<CustomerSearchHit> ORDER = Comparator.comparingInt(CustomerSearchHit::rank)
+            .thenComparing(hit -> hit.customer().getId());
+}
@@ -0,0 +1,48 @@
+package com.theraven.task.customer;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Case-insensitive search of active customers by full name, email and phone
+ */
+public interface CustomerSearchRepository {
+
+    /**
+     * Searches active customers with a field containing the query, ordered by rank and then ID
+     *
+     * @param query     the text to search for, at least three characters long
+     * @param afterRank the rank of the last hit of the previous page, -1 for the first page
+     * @param afterId   the ID of the last hit of the previous page
+     * @param limit     the maximum number of hits
+     * @return the hits following the given position
+     */
+    List<CustomerSearchHit> search(String query, int afterRank, long afterId, int limit);
+
+    /**
+     * Notifies the repository that a customer was created or modified.
+     * Only needed by implementations maintaining their own index
+     *
+     * @param customer the written customer
+     */
+    default void index(Customer customer) {
+    }
+
+    /**
+     * Notifies the repository that the given customers were modified by a bulk statement.
+     * Only needed by implementations maintaining their own index
+     *
+     * @param ids the IDs of the possibly modified customers
+     */
+    default void indexAll(Collection<Long> ids) {
+    }
+
+    /**
+     * Notifies the repository that a customer was deleted.
+     * Only needed by implementations maintaining their own index
+     *
+     * @param id the ID of the deleted customer
+     */
+    default void remove(Long id) {
+    }
+}
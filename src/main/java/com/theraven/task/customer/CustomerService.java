@@ -1,81 +1,161 @@
 package com.theraven.task.customer;
 
+import com.theraven.task.cache.BoundedTtlCache;
+import com.theraven.task.customer.dto.CustomerCursorPageDto;
 import com.theraven.task.customer.dto.CustomerRequestDto;
 import com.theraven.task.customer.dto.CustomerResponseDto;
+import com.theraven.task.customer.dto.CustomerSliceDto;
+import com.theraven.task.datasource.ReadWriteRoutingDataSource;
+import com.theraven.task.errorhandling.LogRateLimiter;
 import com.theraven.task.errorhandling.exception.CustomerExistsException;
 import com.theraven.task.errorhandling.exception.CustomerNotFoundException;
+import com.theraven.task.errorhandling.exception.CustomerPreconditionFailedException;
+import com.theraven.task.errorhandling.exception.CustomerValidationException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.util.*;
 
+/**
+ * Service handling customer operations.
+ * Read paths select response DTOs directly and run in read-only transactions, so Hibernate neither
+ * keeps managed entities with dirty-checking snapshots nor flushes, and no entity to DTO mapping is needed.
+ * In the sharded mode, operations on one customer run on the customer's shard and listings are merged from all shards.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CustomerService {
+    private static final int MIN_SEARCH_LENGTH = 3;
+    private static final int MAX_SEARCH_SIZE = 100;
+    private static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    private static final Comparator<CustomerResponseDto> BY_ID = Comparator.comparing(CustomerResponseDto::getId);
+    // probes and stale links can make most requests miss
+    private static final LogRateLimiter NOT_FOUND_LOG = new LogRateLimiter(10, Duration.ofSeconds(1));
 
     private final CustomerMapper customerMapper;
     private final CustomerRepository customerRepository;
+    private final CustomerUpsertRepository customerUpsertRepository;
+    private final CustomerSearchRepository customerSearchRepository;
+    private final CustomerArchiveRepository customerArchiveRepository;
+    private final CustomerEmailFilter customerEmailFilter;
+    private final ActiveCustomerCounter activeCustomerCounter;
+    private final BoundedTtlCache<Long, CustomerResponseDto> customerCache;
+    private final CustomerEntityCache customerEntityCache;
+    private final CustomerMetrics customerMetrics;
+    private final CustomerShards customerShards;
 
     /**
-     * Creates a new customer
+     * Creates a new customer, or reactivates the deleted customer with the same email
      *
      * @param customerRequestDto the dto object of the new customer
      * @return information about the created customer
      * @throws CustomerExistsException if a customer with this email already exists
      */
     public CustomerResponseDto createCustomer(CustomerRequestDto customerRequestDto) {
-        Optional<Customer> existingCustomerOptional = customerRepository.findByEmail(customerRequestDto.getEmail());
-
-        if (existingCustomerOptional.isPresent()) {
-            Customer customer = existingCustomerOptional.get();
-            if (!customer.isActive()) {
-                return activateCustomer(customer, customerRequestDto);
-            } else {
-                log.warn("User with email {} already exists and is active", customerRequestDto.getEmail());
-                throw new CustomerExistsException("User with email " + customerRequestDto.getEmail() + " already exists.");
-            }
-        }
+        CustomerUpsertResult result = upsertCustomer(customerRequestDto);
 
-        Customer customer = customerMapper.mapRequestDtoToEntity(customerRequestDto);
-        return customerMapper.mapEntityToResponseDto(customerRepository.save(customer));
+        if (result.outcome() == CustomerUpsertResult.Outcome.CONFLICT) {
+            log.warn("User with email {} already exists and is active", customerRequestDto.getEmail());
+            throw new CustomerExistsException("User with email " + customerRequestDto.getEmail() + " already exists.");
+        }
+        return customerMetrics.timeMapping(() -> customerMapper.mapEntityToResponseDto(result.customer()));
     }
 
     /**
-     * Activates a previously deleted customer and updates their details.
-     * This method activates a customer if they were previously inactive,
-     * updates their details and saves the changes to the db
+     * Creates a new customer or reactivates a previously deleted one with a single statement.
+     * The email decides between the cases: a new email is inserted, the email of a deleted customer
+     * reactivates them with the updated details, and the email of an active customer is left untouched.
+     * An archived customer is restored first, so their email is reactivated rather than inserted again.
+     * The archive is not queried for emails the email filter rules out, and only written to when it holds the email
      *
-     * @param customer           the customer entity to be activated and updated
-     * @param customerRequestDto the updated data of the customer
-     * @return the updated customer information
+     * @param customerRequestDto the dto object of the customer
+     * @return which of the cases happened along with the resulting customer
      */
-    private CustomerResponseDto activateCustomer(Customer customer, CustomerRequestDto customerRequestDto) {
-        customer.setActive(true);
-        customer.setUpdatedAt(new Date().getTime());
-        customer.setFullName(customerRequestDto.getFullName());
-        customer.setPhone(customerRequestDto.getPhone());
-        return customerMapper.mapEntityToResponseDto(customerRepository.save(customer));
+    public CustomerUpsertResult upsertCustomer(CustomerRequestDto customerRequestDto) {
+        return customerShards.on(customerShards.shardOf(customerRequestDto.getEmail()),
+                () -> upsertOnShard(customerRequestDto));
+    }
+
+    private CustomerUpsertResult upsertOnShard(CustomerRequestDto customerRequestDto) {
+        if (customerEmailFilter.mightExist(customerRequestDto.getEmail())
+                && !customerArchiveRepository.findArchivedEmails(List.of(customerRequestDto.getEmail())).isEmpty()) {
+            try {
+                customerArchiveRepository.restore(List.of(customerRequestDto.getEmail()));
+            } catch (DataIntegrityViolationException exception) {
+                log.debug("Customer with email {} was created concurrently, not restoring it",
+                        customerRequestDto.getEmail());
+            }
+        }
+
+        CustomerUpsertResult result = customerUpsertRepository.upsert(customerRequestDto);
+
+        if (result.outcome() == CustomerUpsertResult.Outcome.CREATED) {
+            customerEmailFilter.add(customerRequestDto.getEmail());
+        }
+        if (result.outcome() != CustomerUpsertResult.Outcome.CONFLICT) {
+            activeCustomerCounter.increment();
+            // a new ID may have been probed and cached as missing before it was assigned
+            customerCache.invalidate(result.customer().getId());
+            // the upsert is a native statement, so Hibernate does not know the row changed
+            customerEntityCache.evict(result.customer().getId());
+            customerSearchRepository.index(result.customer());
+        }
+        return result;
     }
 
     /**
-     * Retrieves a customer by their ID
+     * Retrieves a customer by their ID.
+     * Lookups are served from the customer cache, including the ones of missing customers,
+     * misses are selected straight into the response DTO. Misses are read from the primary, as a lagging replica
+     * could cache an old row, or a new customer as missing, for every reader
      *
      * @param id the ID of the customer
      * @return the customer information if found
      * @throws CustomerNotFoundException if customer is not found with the given ID
      */
+    @Transactional(readOnly = true)
     public CustomerResponseDto getCustomerById(Long id) {
-        return customerRepository.findByIdAndActiveTrue(id)
-                .map(customerMapper::mapEntityToResponseDto)
-                .orElseThrow(() -> {
-                    log.warn("Customer not found with ID {}", id);
-                    return new CustomerNotFoundException("Customer not found with ID: " + id);
-                });
+        CustomerResponseDto responseDto;
+        try (ReadWriteRoutingDataSource.PrimaryPin ignored = ReadWriteRoutingDataSource.pinPrimary()) {
+            responseDto = customerCache.get(id, key -> customerShards.on(customerShards.shardOf(key),
+                    () -> customerRepository.findResponseById(key).orElse(null)));
+        }
+
+        if (responseDto == null) {
+            throw notFound(id);
+        }
+        return responseDto;
+    }
+
+    /**
+     * Retrieves the version of a customer, used to answer conditional requests.
+     * A cached customer is answered from the cache, otherwise only the version is selected
+     *
+     * @param id the ID of the customer
+     * @return the version of the customer
+     * @throws CustomerNotFoundException if customer is not found with the given ID
+     */
+    @Transactional(readOnly = true)
+    public Long getCustomerVersion(Long id) {
+        CustomerResponseDto cached = customerCache.peek(id);
+        if (cached != null) {
+            return cached.getVersion();
+        }
+
+        Optional<Long> version = customerShards.on(customerShards.shardOf(id),
+                () -> customerRepository.findVersionById(id));
+        return version.orElseThrow(() -> notFound(id));
     }
 
     /**
@@ -85,11 +165,129 @@ public class CustomerService {
      * @param size the size of each page (default 10)
      * @return a page of customer information
      */
+    @Transactional(readOnly = true)
     public Page<CustomerResponseDto> getAllCustomers(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Customer> customerPage = customerRepository.findAllByActiveTrue(pageable);
+        Page<CustomerResponseDto> customerPage = customerShards.isSharded()
+                ? mergedPage(pageable)
+                : customerRepository.findResponsePage(pageable);
+        customerMetrics.recordOffsetRows(customerPage.getNumberOfElements());
+        return customerPage;
+    }
 
-        return customerPage.map(customerMapper::mapEntityToResponseDto);
+    /**
+     * Retrieves a page of customers without counting the total number of rows
+     *
+     * @param page         the page number (default 0)
+     * @param size         the size of each page (default 10)
+     * @param withEstimate whether to include the approximate number of active customers
+     * @return a slice of customer information
+     */
+    @Transactional(readOnly = true)
+    public CustomerSliceDto getCustomerSlice(int page, int size, boolean withEstimate) {
+        Pageable pageable = PageRequest.of(page, size);
+        Slice<CustomerResponseDto> customerSlice = customerShards.isSharded()
+                ? mergedSlice(pageable)
+                : customerRepository.findResponseSlice(pageable);
+        customerMetrics.recordSliceRows(customerSlice.getNumberOfElements());
+
+        return new CustomerSliceDto(customerSlice.getContent(), page, size, customerSlice.hasNext(),
+                withEstimate ? activeCustomerCounter.getEstimate() : null);
+    }
+
+    /**
+     * Retrieves a page of customers using keyset pagination.
+     * Unlike the offset based variant, no rows are skipped and no count query is executed
+     *
+     * @param cursor the cursor returned with the previous page, empty for the first page
+     * @param size   the size of each page (default 10), at most 1000
+     * @return a page of customer information along with the cursor of the next page
+     * @throws CustomerValidationException if the cursor is malformed or the size is out of range
+     */
+    @Transactional(readOnly = true)
+    public CustomerCursorPageDto getAllCustomers(String cursor, int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new CustomerValidationException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+
+        long afterId = cursor.isEmpty() ? 0L : CursorUtils.decode(cursor, 1)[0];
+        List<CustomerResponseDto> customers = findResponsesAfterId(afterId, size + 1);
+        customerMetrics.recordCursorRows(customers.size());
+
+        String nextCursor = null;
+        if (customers.size() > size) {
+            customers = customers.subList(0, size);
+            nextCursor = CursorUtils.encode(customers.get(size - 1).getId());
+        }
+
+        return new CustomerCursorPageDto(customers, nextCursor);
+    }
+
+    /**
+     * Selects the active customers following the given ID on every shard and merges them by ID
+     */
+    private List<CustomerResponseDto> findResponsesAfterId(long afterId, int limit) {
+        Pageable pageable = PageRequest.of(0, limit);
+        return CustomerShards.merge(customerShards.onEach(shard -> customerRepository.findResponsesAfterId(afterId,
+                pageable)), BY_ID, limit);
+    }
+
+    /**
+     * Builds an offset page from the customers merged by ID, as shards cannot skip rows for each other.
+     * Every shard returns up to the end of the page, so deep pages get more expensive
+     */
+    private Page<CustomerResponseDto> mergedPage(Pageable pageable) {
+        List<CustomerResponseDto> head = findResponsesAfterId(0L, Math.toIntExact(pageable.getOffset())
+                + pageable.getPageSize());
+        long total = customerShards.onEach(shard -> customerRepository.countByActiveTrue()).stream()
+                .mapToLong(Long::longValue)
+                .sum();
+        return new PageImpl<>(head.subList(Math.min(head.size(), (int) pageable.getOffset()), head.size()),
+                pageable, total);
+    }
+
+    private Slice<CustomerResponseDto> mergedSlice(Pageable pageable) {
+        int end = Math.toIntExact(pageable.getOffset()) + pageable.getPageSize();
+        List<CustomerResponseDto> head = findResponsesAfterId(0L, end + 1);
+        List<CustomerResponseDto> content = head.subList(Math.min(head.size(), (int) pageable.getOffset()),
+                Math.min(head.size(), end));
+        return new SliceImpl<>(content, pageable, head.size() > end);
+    }
+
+    /**
+     * Searches active customers whose full name, email or phone contains the query, ignoring case.
+     * Exact matches come first, then prefix matches, then other substring matches, each ordered by ID
+     *
+     * @param query  the text to search for, at least three characters long
+     * @param cursor the cursor returned with the previous page, empty for the first page
+     * @param size   the size of each page, at most 100
+     * @return a page of matching customers along with the cursor of the next page
+     * @throws CustomerValidationException if the query is too short, the cursor is malformed
+     *                                     or the size is out of range
+     */
+    @Transactional(readOnly = true)
+    public CustomerCursorPageDto searchCustomers(String query, String cursor, int size) {
+        String trimmedQuery = query.trim();
+        if (trimmedQuery.length() < MIN_SEARCH_LENGTH) {
+            throw new CustomerValidationException("Search query must be at least " + MIN_SEARCH_LENGTH
+                    + " characters long");
+        }
+        if (size < 1 || size > MAX_SEARCH_SIZE) {
+            throw new CustomerValidationException("Page size must be between 1 and " + MAX_SEARCH_SIZE);
+        }
+
+        long[] after = cursor.isEmpty() ? new long[]{-1L, 0L} : CursorUtils.decode(cursor, 2);
+        List<CustomerSearchHit> hits = customerSearchRepository.search(trimmedQuery, (int) after[0], after[1], size + 1);
+        customerMetrics.recordSearchRows(hits.size());
+
+        String nextCursor = null;
+        if (hits.size() > size) {
+            hits = hits.subList(0, size);
+            CustomerSearchHit last = hits.get(size - 1);
+            nextCursor = CursorUtils.encode(last.rank(), last.customer().getId());
+        }
+
+        return new CustomerCursorPageDto(hits.stream().map(CustomerSearchHit::customer).toList(), nextCursor);
     }
 
     /**
@@ -102,11 +300,33 @@ public class CustomerService {
      * @throws CustomerNotFoundException if customer is not found with the given ID
      */
     public CustomerResponseDto updateCustomer(Long id, CustomerRequestDto customerRequestDto) {
+        return updateCustomer(id, customerRequestDto, null);
+    }
+
+    /**
+     * Updates the details of an existing customer if it still matches the entity tag known to the client.
+     * The version of the customer is checked again when saving, so a concurrent update is rejected as well
+     *
+     * @param id                 the ID of the customer to update
+     * @param customerRequestDto the updated data of the customer
+     * @param ifMatch            the If-Match header sent by the client, null to update unconditionally
+     * @return the updated customer information
+     * @throws IllegalArgumentException            if the provided email doesn't match the customer's existing email
+     * @throws CustomerNotFoundException           if customer is not found with the given ID
+     * @throws CustomerPreconditionFailedException if the customer was modified since the client read it
+     */
+    public CustomerResponseDto updateCustomer(Long id, CustomerRequestDto customerRequestDto, String ifMatch) {
+        return customerShards.on(customerShards.shardOf(id), () -> updateOnShard(id, customerRequestDto, ifMatch));
+    }
+
+    private CustomerResponseDto updateOnShard(Long id, CustomerRequestDto customerRequestDto, String ifMatch) {
         Optional<Customer> existingCustomerOptional = customerRepository.findByIdAndActiveTrue(id);
-        Customer existingCustomer = existingCustomerOptional.orElseThrow(() -> {
-            log.warn("Customer not found with ID {}", id);
-            return new CustomerNotFoundException("Customer not found with ID: " + id);
-        });
+        Customer existingCustomer = existingCustomerOptional.orElseThrow(() -> notFound(id));
+
+        String etag = CustomerEtags.of(id, existingCustomer.getVersion());
+        if (ifMatch != null && !CustomerEtags.matches(ifMatch, etag, false)) {
+            throw new CustomerPreconditionFailedException("Customer with ID " + id + " has been modified.");
+        }
 
         if (!existingCustomer.getEmail().equals(customerRequestDto.getEmail())) {
             throw new IllegalArgumentException("Email cannot be updated.");
@@ -116,7 +336,11 @@ public class CustomerService {
         existingCustomer.setFullName(customerRequestDto.getFullName());
         existingCustomer.setPhone(customerRequestDto.getPhone());
 
-        return customerMapper.mapEntityToResponseDto(customerRepository.save(existingCustomer));
+        Customer savedCustomer = customerRepository.save(existingCustomer);
+        customerSearchRepository.index(savedCustomer);
+        CustomerResponseDto responseDto = customerMetrics.timeMapping(() -> customerMapper.mapEntityToResponseDto(savedCustomer));
+        customerCache.invalidate(id);
+        return responseDto;
     }
 
     /**
@@ -126,14 +350,31 @@ public class CustomerService {
      * @throws CustomerNotFoundException if customer is not found with the given ID
      */
     public void deleteCustomer(Long id) {
-        Optional<Customer> existingCustomerOptional = customerRepository.findByIdAndActiveTrue(id);
-        Customer existingCustomer = existingCustomerOptional.orElseThrow(() -> {
-            log.warn("Customer not found with ID {}", id);
-            return new CustomerNotFoundException("Customer not found with ID: " + id);
+        customerShards.on(customerShards.shardOf(id), () -> {
+            deleteOnShard(id);
+            return null;
         });
+    }
+
+    private void deleteOnShard(Long id) {
+        Optional<Customer> existingCustomerOptional = customerRepository.findByIdAndActiveTrue(id);
+        Customer existingCustomer = existingCustomerOptional.orElseThrow(() -> notFound(id));
 
         existingCustomer.setActive(false);
         customerRepository.save(existingCustomer);
+        activeCustomerCounter.decrement();
+        customerCache.putAbsent(id);
+        customerSearchRepository.remove(id);
         log.info("Customer with ID {} deleted", id);
     }
+
+    private static CustomerNotFoundException notFound(Long id) {
+        long suppressed = NOT_FOUND_LOG.acquire();
+        if (suppressed > 0) {
+            log.warn("Customer not found with ID {}, {} similar warnings suppressed", id, suppressed);
+        } else if (suppressed == 0) {
+            log.warn("Customer not found with ID {}", id);
+        }
+        return new CustomerNotFoundException("Customer not found with ID: " + id);
+    }
 }
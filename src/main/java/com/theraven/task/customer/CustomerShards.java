@@ -0,0 +1,211 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.datasource.ShardRoutingDataSource;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Placement of customers over the shards of the sharded mode.
+ * <p>
+ * A customer lives on the shard selected by the hash of their email. Their ID keeps the shard
+ * in its remainder by {@link #MAX_SHARDS}, so lookups by ID are routed without knowing the email.
+ * Operations spanning all customers run on every shard in parallel and merge the results.
+ * Without sharding there is a single shard and every operation runs directly on the calling thread.
+ */
+@Component
+public class CustomerShards {
+    /**
+     * Upper bound of the number of shards, fixed so that the shard of existing IDs never changes
+     */
+    public static final int MAX_SHARDS = 1024;
+
+    private final int count;
+    private final ExecutorService fanOutExecutor;
+
+    public CustomerShards(@Value("${customer.sharding.enabled}") boolean enabled,
+                          @Value("${customer.sharding.count}") int count,
+                          @Value("${customer.sharding.fan-out-threads}") int fanOutThreads) {
+        if (enabled && (count < 1 || count > MAX_SHARDS)) {
+            throw new IllegalArgumentException("Shard count must be between 1 and " + MAX_SHARDS + ": " + count);
+        }
+
+        this.count = enabled ? count : 1;
+        this.fanOutExecutor = this.count == 1 ? null : Executors.newFixedThreadPool(fanOutThreads, fanOutThreads());
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean isSharded() {
+        return count > 1;
+    }
+
+    /**
+     * Returns the shard of the customer with the given email
+     *
+     * @param email the email of the customer
+     * @return the index of the shard
+     */
+    public int shardOf(String email) {
+        return count == 1 ? 0 : Math.floorMod(email.hashCode(), count);
+    }
+
+    /**
+     * Returns the shard of the customer with the given ID
+     *
+     * @param id the ID of the customer
+     * @return the index of the shard
+     */
+    public int shardOf(long id) {
+        return count == 1 ? 0 : Math.floorMod(id, MAX_SHARDS) % count;
+    }
+
+    /**
+     * Returns the factor applied to sequence values so that IDs keep their shard,
+     * 1 without sharding so that IDs are plain sequence values
+     *
+     * @return the multiplier of the sequence value
+     */
+    public long idMultiplier() {
+        return count == 1 ? 1 : MAX_SHARDS;
+    }
+
+    /**
+     * Returns the shard the current thread works on, to be encoded in new IDs
+     *
+     * @return the index of the shard
+     */
+    public int currentShard() {
+        return count == 1 ? 0 : ShardRoutingDataSource.currentShard();
+    }
+
+    /**
+     * Runs the action on the given shard
+     *
+     * @param shard  the index of the shard
+     * @param action the action to run
+     * @param <T>    the type of the result
+     * @return the result of the action
+     */
+    public <T> T on(int shard, Supplier<T> action) {
+        if (count == 1) {
+            return action.get();
+        }
+
+        try (ShardRoutingDataSource.ShardScope ignored = ShardRoutingDataSource.use(shard)) {
+            return action.get();
+        }
+    }
+
+    /**
+     * Runs the action on every shard, one after the other
+     *
+     * @param action the action to run, receiving the index of the shard
+     */
+    public void forEach(IntConsumer action) {
+        for (int shard = 0; shard < count; shard++) {
+            int current = shard;
+            on(shard, () -> {
+                action.accept(current);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Runs the query on every shard in parallel
+     *
+     * @param query the query to run, receiving the index of the shard
+     * @param <T>   the type of the result
+     * @return the results, by shard
+     */
+    public <T> List<T> onEach(IntFunction<T> query) {
+        if (count == 1) {
+            return Collections.singletonList(query.apply(0));
+        }
+
+        List<CompletableFuture<T>> futures = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            int current = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> on(current, () -> query.apply(current)), fanOutExecutor));
+        }
+
+        List<T> results = new ArrayList<>(count);
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw exception;
+        }
+        return results;
+    }
+
+    /**
+     * Splits the given IDs by shard, keeping their order within each shard
+     *
+     * @param ids the IDs to split
+     * @return the IDs of every shard having any
+     */
+    public Map<Integer, List<Long>> groupByShard(Collection<Long> ids) {
+        Map<Integer, List<Long>> byShard = new LinkedHashMap<>();
+        for (Long id : ids) {
+            byShard.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id);
+        }
+        return byShard;
+    }
+
+    /**
+     * Merges results sorted on every shard into the first elements of the overall order
+     *
+     * @param results the sorted results of every shard
+     * @param order   the order the results are sorted by
+     * @param limit   the maximum number of elements to return
+     * @param <T>     the type of the elements
+     * @return the first elements of all results, sorted
+     */
+    public static <T> List<T> merge(List<List<T>> results, Comparator<? super T> order, int limit) {
+        if (results.size() == 1) {
+            List<T> result = results.get(0);
+            return result.size() > limit ? result.subList(0, limit) : result;
+        }
+
+        return results.stream()
+                .flatMap(List::stream)
+                .sorted(order)
+                .limit(limit)
+                .toList();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdown();
+        }
+    }
+
+    private static ThreadFactory fanOutThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "shard-fan-out-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
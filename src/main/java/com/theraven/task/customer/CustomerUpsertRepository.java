@@ -0,0 +1,18 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.customer.dto.CustomerRequestDto;
+
+/**
+ * Creates a customer or reactivates a deleted one in a single statement, without reading first.
+ * An active customer with the same email is never modified.
+ */
+public interface CustomerUpsertRepository {
+
+    /**
+     * Inserts the customer, or reactivates and updates the deleted customer with the same email
+     *
+     * @param customerRequestDto the data of the customer
+     * @return the outcome along with the resulting customer
+     */
+    CustomerUpsertResult upsert(CustomerRequestDto customerRequestDto);
+}
@@ -0,0 +1,20 @@
+package com.theraven.task.customer;
+
+/**
+ * Result of a create-or-reactivate statement
+ *
+ * @param outcome  which of the three cases happened
+ * @param customer the created or reactivated customer, null on conflict
+ */
+public record CustomerUpsertResult(Outcome outcome, Customer customer) {
+
+    public enum Outcome {
+        CREATED,
+        REACTIVATED,
+        CONFLICT
+    }
+
+    public static CustomerUpsertResult conflict() {
+        return new CustomerUpsertResult(Outcome.CONFLICT, null);
+    }
+}
@@ -0,0 +1,203 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * H2 search served by an in-memory trigram index, used by the local profile.
+ * <p>
+ * Every trigram of the lower-cased fields of an active customer points to the customer,
+ * so the candidates of a query are the customers sharing its rarest trigram.
+ * The index is built from the table at startup and kept up to date by the write paths.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.datasource.driver-class-name", havingValue = "org.h2.Driver")
+public class H2CustomerSearchRepository implements CustomerSearchRepository {
+    private static final int GRAM = 3;
+    private static final String SELECT_ACTIVE = """
+            SELECT id, full_name, email, phone, version
+            FROM customer
+            WHERE is_active
+            """;
+    private static final String SELECT_BY_IDS = """
+            SELECT id, created_at, updated_at, full_name, email, phone, is_active, version
+            FROM customer
+            WHERE id IN (:ids)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CustomerShards customerShards;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, IndexedCustomer> customers = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    /**
+     * Rebuilds the index from the active customers of the table on every shard
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<CustomerResponseDto> active = customerShards.onEach(shard -> jdbcTemplate.query(SELECT_ACTIVE,
+                        (resultSet, rowNum) -> new CustomerResponseDto(resultSet.getLong("id"),
+                                resultSet.getString("full_name"), resultSet.getString("email"),
+                                resultSet.getString("phone"), resultSet.getLong("version")))).stream()
+                .flatMap(List::stream)
+                .toList();
+
+        lock.writeLock().lock();
+        try {
+            customers.clear();
+            postings.clear();
+            active.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built with {} customers", active.size());
+    }
+
+    @Override
+    public List<CustomerSearchHit> search(String query, int afterRank, long afterId, int limit) {
+        String normalized = query.toLowerCase(Locale.ROOT);
+        List<CustomerSearchHit> hits = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = null;
+            for (String gram : grams(normalized)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return List.of();
+                }
+                if (candidates == null || ids.size() < candidates.size()) {
+                    candidates = ids;
+                }
+            }
+            if (candidates == null) {
+                return List.of();
+            }
+
+            for (Long id : candidates) {
+                IndexedCustomer customer = customers.get(id);
+                int rank = customer.rank(normalized);
+                if (rank >= 0 && (rank > afterRank || rank == afterRank && id > afterId)) {
+                    hits.add(new CustomerSearchHit(rank, customer.customer()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingInt(CustomerSearchHit::rank)
+                .thenComparing(hit -> hit.customer().getId()));
+        return hits.size() > limit ? hits.subList(0, limit) : hits;
+    }
+
+    @Override
+    public void index(Customer customer) {
+        lock.writeLock().lock();
+        try {
+            delete(customer.getId());
+            if (customer.isActive()) {
+                add(new CustomerResponseDto(customer.getId(), customer.getFullName(), customer.getEmail(),
+                        customer.getPhone(), customer.getVersion()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void indexAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        new NamedParameterJdbcTemplate(jdbcTemplate)
+                .query(SELECT_BY_IDS, Map.of("ids", ids), CustomerRowMapper.INSTANCE)
+                .forEach(this::index);
+    }
+
+    @Override
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            delete(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void add(CustomerResponseDto customer) {
+        IndexedCustomer indexed = new IndexedCustomer(customer, terms(customer));
+        customers.put(customer.getId(), indexed);
+        for (String term : indexed.terms()) {
+            for (String gram : grams(term)) {
+                postings.computeIfAbsent(gram, key -> new HashSet<>()).add(customer.getId());
+            }
+        }
+    }
+
+    private void delete(Long id) {
+        IndexedCustomer indexed = customers.remove(id);
+        if (indexed == null) {
+            return;
+        }
+
+        for (String term : indexed.terms()) {
+            for (String gram : grams(term)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static List<String> terms(CustomerResponseDto customer) {
+        List<String> terms = new ArrayList<>(3);
+        for (String field : new String[]{customer.getFullName(), customer.getEmail(), customer.getPhone()}) {
+            if (field != null) {
+                terms.add(field.toLowerCase(Locale.ROOT));
+            }
+        }
+        return terms;
+    }
+
+    private static Set<String> grams(String term) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            grams.add(term.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private record IndexedCustomer(CustomerResponseDto customer, List<String> terms) {
+
+        private int rank(String query) {
+            int rank = -1;
+            for (String term : terms) {
+                if (term.equals(query)) {
+                    return CustomerSearchHit.EXACT;
+                } else if (term.startsWith(query)) {
+                    rank = CustomerSearchHit.PREFIX;
+                } else if (rank < 0 && term.contains(query)) {
+                    rank = CustomerSearchHit.SUBSTRING;
+                }
+            }
+            return rank;
+        }
+    }
+}
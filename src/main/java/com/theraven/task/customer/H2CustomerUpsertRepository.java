@@ -0,0 +1,86 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.customer.dto.CustomerRequestDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * H2 upsert based on MERGE ... USING, used by the local profile.
+ * H2 has no RETURNING clause for MERGE, so the row of the email is locked before the statement,
+ * telling a creation from a reactivation, and read back after it within the same transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.datasource.driver-class-name", havingValue = "org.h2.Driver")
+public class H2CustomerUpsertRepository implements CustomerUpsertRepository {
+    private static final String SELECT_ACTIVE_FOR_UPDATE = """
+            SELECT is_active
+            FROM customer
+            WHERE email = :email
+            FOR UPDATE
+            """;
+    private static final String MERGE = """
+            MERGE INTO customer c
+            USING (SELECT CAST(:fullName AS VARCHAR(50)) AS full_name,
+                          CAST(:email AS VARCHAR(100))   AS email,
+                          CAST(:phone AS VARCHAR(14))    AS phone) s
+            ON c.email = s.email
+            WHEN MATCHED AND NOT c.is_active THEN
+                UPDATE SET full_name = s.full_name, phone = s.phone, updated_at = :now, is_active = TRUE,
+                           version = c.version + 1
+            WHEN NOT MATCHED THEN
+                INSERT (id, created_at, updated_at, full_name, email, phone, is_active)
+                VALUES (NEXT VALUE FOR customer_seq * :idMultiplier + :shard, :now, :now,
+                        s.full_name, s.email, s.phone, TRUE)
+            """;
+    private static final String SELECT_BY_EMAIL = """
+            SELECT id, created_at, updated_at, full_name, email, phone, is_active, version
+            FROM customer
+            WHERE email = :email
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CustomerShards customerShards;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public CustomerUpsertResult upsert(CustomerRequestDto customerRequestDto) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("now", new Date().getTime())
+                .addValue("fullName", customerRequestDto.getFullName())
+                .addValue("email", customerRequestDto.getEmail())
+                .addValue("phone", customerRequestDto.getPhone())
+                .addValue("idMultiplier", customerShards.idMultiplier())
+                .addValue("shard", customerShards.currentShard());
+
+        return transactionTemplate.execute(status -> upsert(parameters));
+    }
+
+    private CustomerUpsertResult upsert(MapSqlParameterSource parameters) {
+        List<Boolean> active = jdbcTemplate.queryForList(SELECT_ACTIVE_FOR_UPDATE, parameters, Boolean.class);
+        if (!active.isEmpty() && Boolean.TRUE.equals(active.get(0))) {
+            return CustomerUpsertResult.conflict();
+        }
+
+        try {
+            if (jdbcTemplate.update(MERGE, parameters) == 0) {
+                return CustomerUpsertResult.conflict();
+            }
+        } catch (DuplicateKeyException exception) {
+            // the email was inserted by a concurrent transaction after the lookup found no row
+            return CustomerUpsertResult.conflict();
+        }
+
+        Customer customer = jdbcTemplate.queryForObject(SELECT_BY_EMAIL, parameters, CustomerRowMapper.INSTANCE);
+        return new CustomerUpsertResult(active.isEmpty()
+                ? CustomerUpsertResult.Outcome.CREATED : CustomerUpsertResult.Outcome.REACTIVATED, customer);
+    }
+}
@@ -0,0 +1,82 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * PostgreSQL search, run one rank after the other until the page is filled.
+ * Exact and prefix matches are selected through the btree indexes on the lower-cased fields of active customers,
+ * other substring matches through the trigram indexes. Every rank is a separate query ordered by ID with its own
+ * limit, so no computed rank has to be sorted, and a page only reaches a rank once the previous ones are exhausted.
+ * With sharding every shard is searched in parallel and the first hits of all shards are merged.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.datasource.driver-class-name", havingValue = "org.postgresql.Driver")
+public class PostgresCustomerSearchRepository implements CustomerSearchRepository {
+    private static final String EXACT = """
+            (lower(full_name) = :query OR lower(email) = :query OR lower(phone) = :query)""";
+    private static final String PREFIX = """
+            (lower(full_name) LIKE :prefix OR lower(email) LIKE :prefix OR lower(phone) LIKE :prefix)""";
+    private static final String CONTAINS = """
+            (lower(full_name) LIKE :contains OR lower(email) LIKE :contains OR lower(phone) LIKE :contains)""";
+    private static final String SEARCH = """
+            SELECT id, full_name, email, phone, version
+            FROM customer
+            WHERE is_active AND id > :afterId AND %s
+            ORDER BY id
+            LIMIT :limit
+            """;
+    // by rank, a customer is only listed under their best rank, IS NOT TRUE as the phone may be null
+    private static final List<String> SEARCHES = Stream.of(
+                    EXACT,
+                    PREFIX + " AND " + EXACT + " IS NOT TRUE",
+                    CONTAINS + " AND " + PREFIX + " IS NOT TRUE")
+            .map(SEARCH::formatted)
+            .toList();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CustomerShards customerShards;
+
+    @Override
+    public List<CustomerSearchHit> search(String query, int afterRank, long afterId, int limit) {
+        String normalized = query.toLowerCase(Locale.ROOT);
+        String escaped = normalized.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("query", normalized)
+                .addValue("prefix", escaped + "%")
+                .addValue("contains", "%" + escaped + "%");
+
+        return CustomerShards.merge(customerShards.onEach(shard -> searchShard(parameters, afterRank, afterId, limit)),
+                CustomerSearchHit.ORDER, limit);
+    }
+
+    private List<CustomerSearchHit> searchShard(MapSqlParameterSource matchParameters, int afterRank, long afterId,
+                                                int limit) {
+        List<CustomerSearchHit> hits = new ArrayList<>(limit);
+        for (int rank = Math.max(afterRank, CustomerSearchHit.EXACT);
+             rank <= CustomerSearchHit.SUBSTRING && hits.size() < limit; rank++) {
+            int currentRank = rank;
+            MapSqlParameterSource parameters = new MapSqlParameterSource(matchParameters.getValues())
+                    .addValue("afterId", rank == afterRank ? afterId : Long.MIN_VALUE)
+                    .addValue("limit", limit - hits.size());
+
+            hits.addAll(jdbcTemplate.query(SEARCHES.get(rank), parameters,
+                    (resultSet, rowNum) -> new CustomerSearchHit(currentRank,
+                            new CustomerResponseDto(resultSet.getLong("id"), resultSet.getString("full_name"),
+                                    resultSet.getString("email"), resultSet.getString("phone"),
+                                    resultSet.getLong("version")))));
+        }
+        return hits;
+    }
+}
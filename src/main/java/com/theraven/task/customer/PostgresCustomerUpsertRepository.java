@@ -0,0 +1,54 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.customer.dto.CustomerRequestDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * PostgreSQL upsert based on INSERT ... ON CONFLICT, returning the row and whether it was inserted in one round trip.
+ * The unique constraint on email arbitrates concurrent creates, so a race ends in a clean conflict.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.datasource.driver-class-name", havingValue = "org.postgresql.Driver")
+public class PostgresCustomerUpsertRepository implements CustomerUpsertRepository {
+    private static final String UPSERT = """
+            INSERT INTO customer (id, created_at, updated_at, full_name, email, phone, is_active)
+            VALUES (nextval('customer_seq') * :idMultiplier + :shard, :now, :now, :fullName, :email, :phone, TRUE)
+            ON CONFLICT (email) DO UPDATE
+                SET full_name  = EXCLUDED.full_name,
+                    phone      = EXCLUDED.phone,
+                    updated_at = EXCLUDED.updated_at,
+                    is_active  = TRUE,
+                    version    = customer.version + 1
+                WHERE NOT customer.is_active
+            RETURNING id, created_at, updated_at, full_name, email, phone, is_active, version, (xmax = 0) AS inserted
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CustomerShards customerShards;
+
+    @Override
+    public CustomerUpsertResult upsert(CustomerRequestDto customerRequestDto) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("now", new Date().getTime())
+                .addValue("fullName", customerRequestDto.getFullName())
+                .addValue("email", customerRequestDto.getEmail())
+                .addValue("phone", customerRequestDto.getPhone())
+                .addValue("idMultiplier", customerShards.idMultiplier())
+                .addValue("shard", customerShards.currentShard());
+
+        List<CustomerUpsertResult> results = jdbcTemplate.query(UPSERT, parameters, (resultSet, rowNum) ->
+                new CustomerUpsertResult(resultSet.getBoolean("inserted")
+                        ? CustomerUpsertResult.Outcome.CREATED : CustomerUpsertResult.Outcome.REACTIVATED,
+                        CustomerRowMapper.INSTANCE.mapRow(resultSet, rowNum)));
+
+        return results.isEmpty() ? CustomerUpsertResult.conflict() : results.get(0);
+    }
+}
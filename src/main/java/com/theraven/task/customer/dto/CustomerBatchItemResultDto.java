@@ -0,0 +1,28 @@
+package com.theraven.task.customer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CustomerBatchItemResultDto {
+
+    @Schema(description = "Position of the item in the request", example = "0")
+    private int index;
+
+    @Schema(description = "Outcome of the item", example = "CREATED")
+    private CustomerBatchItemStatus status;
+
+    @Schema(description = "The created or reactivated customer")
+    private CustomerResponseDto customer;
+
+    @Schema(description = "Reasons the item was rejected")
+    private List<String> errors;
+}
@@ -0,0 +1,11 @@
+package com.theraven.task.customer.dto;
+
+/**
+ * Outcome of a single item of a customer batch
+ */
+public enum CustomerBatchItemStatus {
+    CREATED,
+    REACTIVATED,
+    DUPLICATE,
+    INVALID
+}
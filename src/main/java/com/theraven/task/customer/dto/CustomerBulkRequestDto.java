@@ -0,0 +1,21 @@
+package com.theraven.task.customer.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerBulkRequestDto {
+
+    @Schema(description = "IDs of the customers, mutually exclusive with createdBefore", example = "[591431, 591432]")
+    private List<Long> ids;
+
+    @Schema(description = "Selects all customers created before this time in milliseconds since the epoch, "
+            + "mutually exclusive with ids", example = "1717171717171")
+    private Long createdBefore;
+}
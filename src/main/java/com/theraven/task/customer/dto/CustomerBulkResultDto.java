@@ -0,0 +1,21 @@
+package com.theraven.task.customer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerBulkResultDto {
+
+    @Schema(description = "Number of customers changed", example = "99870")
+    private long affected;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Number of given IDs not found or already in the requested state, present only for IDs",
+            example = "130")
+    private Long missing;
+}
@@ -0,0 +1,32 @@
+package com.theraven.task.customer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CustomerChangeDto {
+
+    @Schema(description = "Customer's ID", example = "591431")
+    private Long id;
+
+    @Schema(description = "Customer's full name, absent for deleted customers", example = "John Doe")
+    private String fullName;
+
+    @Schema(description = "Customer's email address, absent for deleted customers", example = "john.doe@example.com")
+    private String email;
+
+    @Schema(description = "Customer's phone number, absent for deleted customers", example = "+1234567890")
+    private String phone;
+
+    @Schema(description = "Time of the change in milliseconds since the epoch", example = "1717171717171")
+    private Long updatedAt;
+
+    @Schema(description = "Whether the customer was deleted, making this change a tombstone")
+    private boolean deleted;
+}
@@ -0,0 +1,24 @@
+package com.theraven.task.customer.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerChangePageDto {
+
+    @Schema(description = "Changes following the given cursor, oldest first")
+    private List<CustomerChangeDto> changes;
+
+    @Schema(description = "Opaque cursor to pass as 'since' in the next request, "
+            + "null if no change has been returned yet", example = "MTcxNzE3MTcxNzE3MTo1OTE0MzE")
+    private String nextCursor;
+
+    @Schema(description = "Whether more changes are available right away")
+    private boolean hasMore;
+}
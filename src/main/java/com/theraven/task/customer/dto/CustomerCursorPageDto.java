@@ -0,0 +1,20 @@
+package com.theraven.task.customer.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerCursorPageDto {
+
+    @Schema(description = "Customers of the current page, in result order")
+    private List<CustomerResponseDto> content;
+
+    @Schema(description = "Opaque cursor of the next page, null if this is the last page", example = "NTkxNDMx")
+    private String nextCursor;
+}
@@ -0,0 +1,38 @@
+package com.theraven.task.customer.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class CustomerImportSummaryDto {
+
+    @Schema(description = "Number of rows read so far", example = "1000")
+    private long processed;
+
+    @Schema(description = "Number of rows created as new customers", example = "950")
+    private long accepted;
+
+    @Schema(description = "Number of rows that reactivated a deleted customer", example = "20")
+    private long reactivated;
+
+    @Schema(description = "Number of rows whose email belongs to an active customer", example = "25")
+    private long duplicate;
+
+    @Schema(description = "Number of rows that could not be parsed or failed validation", example = "5")
+    private long invalid;
+
+    @Schema(description = "Whether the whole input has been processed")
+    private boolean completed;
+
+    public void count(CustomerBatchItemStatus status) {
+        processed++;
+        switch (status) {
+            case CREATED -> accepted++;
+            case REACTIVATED -> reactivated++;
+            case DUPLICATE -> duplicate++;
+            case INVALID -> invalid++;
+        }
+    }
+}
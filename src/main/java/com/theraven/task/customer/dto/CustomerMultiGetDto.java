@@ -0,0 +1,20 @@
+package com.theraven.task.customer.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerMultiGetDto {
+
+    @Schema(description = "Customers found, in the order of the requested IDs")
+    private List<CustomerResponseDto> content;
+
+    @Schema(description = "Requested IDs with no active customer, in request order", example = "[591433]")
+    private List<Long> missing;
+}
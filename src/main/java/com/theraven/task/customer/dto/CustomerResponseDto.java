@@ -1,5 +1,6 @@
 package com.theraven.task.customer.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -21,4 +22,10 @@ public class CustomerResponseDto {
 
     @Schema(description = "Customer's phone number", example = "+1234567890")
     private String phone;
+
+    /*
+     * Version of the customer, not serialized but exposed through the ETag header.
+     */
+    @JsonIgnore
+    private Long version;
 }
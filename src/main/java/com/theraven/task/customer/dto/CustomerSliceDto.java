@@ -0,0 +1,31 @@
+package com.theraven.task.customer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CustomerSliceDto {
+
+    @Schema(description = "Customers of the current page")
+    private List<CustomerResponseDto> content;
+
+    @Schema(description = "Current page number", example = "0")
+    private int page;
+
+    @Schema(description = "Requested page size", example = "10")
+    private int size;
+
+    @Schema(description = "Whether another page follows the current one")
+    private boolean hasNext;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Approximate number of active customers, present only when requested", example = "1520043")
+    private Long totalEstimate;
+}
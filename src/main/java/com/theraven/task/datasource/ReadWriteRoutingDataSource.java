@@ -0,0 +1,79 @@
+package com.theraven.task.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * DataSource sending read-only transactions to a replica and everything else to the primary.
+ * <p>
+ * The target is chosen when a connection is obtained, so this DataSource must be wrapped in a
+ * {@link LazyConnectionDataSourceProxy}: the physical connection is then only fetched on the first statement,
+ * once the transaction has been marked read-only. Code that must see the latest committed state,
+ * such as the reads following a write of the same client, pins the current thread to the primary.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Sends all connections obtained by the current thread to the primary until the returned pin is closed.
+     * Pins can be nested
+     *
+     * @return the pin to close once done
+     */
+    public static PrimaryPin pinPrimary() {
+        Boolean previous = PRIMARY_PINNED.get();
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                PRIMARY_PINNED.remove();
+            }
+        };
+    }
+
+    /**
+     * Tells whether the current thread is pinned to the primary
+     *
+     * @return true if all connections of the current thread go to the primary
+     */
+    public static boolean isPrimaryPinned() {
+        return PRIMARY_PINNED.get() != null;
+    }
+
+    /**
+     * Returns the target the current thread would obtain a connection from
+     *
+     * @return the primary or the replica
+     */
+    public static Target currentTarget() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !isPrimaryPinned()
+                ? Target.REPLICA : Target.PRIMARY;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentTarget();
+    }
+
+    /**
+     * Scope pinning the current thread to the primary, meant for try-with-resources
+     */
+    @FunctionalInterface
+    public interface PrimaryPin extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
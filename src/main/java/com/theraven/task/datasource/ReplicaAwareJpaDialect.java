@@ -0,0 +1,47 @@
+package com.theraven.task.datasource;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.lang.Nullable;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.SQLException;
+
+/**
+ * Hibernate dialect keeping the transactions served by the replica from filling the second-level cache.
+ * <p>
+ * A lagging replica may return a row older than the one a write just evicted, which would then be cached
+ * and served to every reader, including the clients pinned to the primary. Read-only transactions
+ * not pinned to the primary still read the cache, but their loads are not stored.
+ */
+public class ReplicaAwareJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly() || ReadWriteRoutingDataSource.isPrimaryPinned()) {
+            return transactionData;
+        }
+
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previousCacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        return new ReplicaTransactionData(transactionData, session, previousCacheMode);
+    }
+
+    @Override
+    public void cleanupTransaction(@Nullable Object transactionData) {
+        if (transactionData instanceof ReplicaTransactionData replicaTransaction) {
+            replicaTransaction.session().setCacheMode(replicaTransaction.previousCacheMode());
+            super.cleanupTransaction(replicaTransaction.transactionData());
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private record ReplicaTransactionData(Object transactionData, Session session, CacheMode previousCacheMode) {
+    }
+}
@@ -0,0 +1,93 @@
+package com.theraven.task.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DataSource spreading connections over shards, each one a separate database with the same schema.
+ * <p>
+ * The shard is chosen by the current thread when a connection is obtained, the first shard by default.
+ * Like read/write routing, this DataSource must be wrapped in a {@link LazyConnectionDataSourceProxy},
+ * so a transaction started before its shard is selected still connects to the right one.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        afterPropertiesSet();
+    }
+
+    /**
+     * Sends all connections obtained by the current thread to the given shard until the returned scope is closed.
+     * Scopes can be nested
+     *
+     * @param shard the index of the shard
+     * @return the scope to close once done
+     */
+    public static ShardScope use(int shard) {
+        Integer previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        return () -> {
+            if (previous == null) {
+                CURRENT_SHARD.remove();
+            } else {
+                CURRENT_SHARD.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Returns the shard the current thread obtains connections from
+     *
+     * @return the index of the shard
+     */
+    public static int currentShard() {
+        Integer shard = CURRENT_SHARD.get();
+        return shard == null ? 0 : shard;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentShard();
+    }
+
+    /**
+     * Closes the pools of all shards
+     */
+    @Override
+    public void close() {
+        for (DataSource shard : shards) {
+            if (shard instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception exception) {
+                    logger.warn("Could not close shard DataSource", exception);
+                }
+            }
+        }
+    }
+
+    /**
+     * Scope selecting the shard of the current thread, meant for try-with-resources
+     */
+    @FunctionalInterface
+    public interface ShardScope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -1,20 +1,38 @@
 package com.theraven.task.errorhandling;
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Utility class for handling errors and exceptions
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class ErrorUtils {
+    // the JSON of an ErrorResponse around its timestamp and details, encoded once per status
+    private static final Map<HttpStatus, byte[]> BODY_STARTS = new EnumMap<>(HttpStatus.class);
+    private static final Map<HttpStatus, byte[]> BODY_MIDDLES = new EnumMap<>(HttpStatus.class);
+    private static final byte[] BODY_END = "\"]}".getBytes(StandardCharsets.UTF_8);
+
+    static {
+        for (HttpStatus status : HttpStatus.values()) {
+            BODY_STARTS.put(status, ("{\"statusCode\":" + status.value() + ",\"timestamp\":\"")
+                    .getBytes(StandardCharsets.UTF_8));
+            BODY_MIDDLES.put(status, ("\",\"message\":\"" + status.name() + "\",\"details\":[\"")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+    }
 
     /**
      * Builds an exception response body
@@ -24,13 +42,32 @@ public class ErrorUtils {
      * @return A ResponseEntity containing the error response body
      */
     public static ResponseEntity<Object> buildExceptionBody(Exception exception, HttpStatus httpStatus) {
-        return ResponseEntity.status(httpStatus).body(ErrorResponse.builder()
-                .statusCode(httpStatus.value())
-                .timestamp(Instant.now())
-                .message(httpStatus.name())
-                .details(List.of(exception.getMessage()))
-                .build()
-        );
+        return ResponseEntity.status(httpStatus)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorBody(httpStatus, exception.getMessage()));
+    }
+
+    /**
+     * Encodes the JSON of an {@link ErrorResponse} with a single detail, without building the object
+     * or going through the object mapper
+     *
+     * @param httpStatus The HTTP status code of the error
+     * @param detail     The description of the error
+     * @return The UTF-8 encoded JSON body
+     */
+    public static byte[] errorBody(HttpStatus httpStatus, String detail) {
+        byte[] start = BODY_STARTS.get(httpStatus);
+        byte[] timestamp = Instant.now().toString().getBytes(StandardCharsets.US_ASCII);
+        byte[] middle = BODY_MIDDLES.get(httpStatus);
+        byte[] quotedDetail = JsonStringEncoder.getInstance().quoteAsUTF8(String.valueOf(detail));
+
+        byte[] body = new byte[start.length + timestamp.length + middle.length + quotedDetail.length + BODY_END.length];
+        int position = copy(start, body, 0);
+        position = copy(timestamp, body, position);
+        position = copy(middle, body, position);
+        position = copy(quotedDetail, body, position);
+        copy(BODY_END, body, position);
+        return body;
     }
 
     /**
@@ -44,4 +81,9 @@ public class ErrorUtils {
                 .map(FieldError::getDefaultMessage)
                 .toList();
     }
-}
\ No newline at end of file
+
+    private static int copy(byte[] source, byte[] target, int position) {
+        System.arraycopy(source, 0, target, position, source.length);
+        return position + source.length;
+    }
+}
@@ -2,35 +2,67 @@ package com.theraven.task.errorhandling;
 
 import com.theraven.task.errorhandling.exception.CustomerExistsException;
 import com.theraven.task.errorhandling.exception.CustomerNotFoundException;
+import com.theraven.task.errorhandling.exception.CustomerPreconditionFailedException;
 import com.theraven.task.errorhandling.exception.CustomerValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
- * Global exception handler for handling specific exceptions
+ * Global exception handler for handling specific exceptions.
+ * Every handled exception is counted by type and response status, each type always mapping to the same status
  */
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<Class<?>, Counter> errorCounters = new ConcurrentHashMap<>();
+
     @ExceptionHandler
     private ResponseEntity<Object> handleException(IllegalArgumentException exception) {
-        return ErrorUtils.buildExceptionBody(exception, HttpStatus.FORBIDDEN);
+        return handled(exception, HttpStatus.FORBIDDEN);
     }
 
     @ExceptionHandler(CustomerValidationException.class)
     private ResponseEntity<Object> handleException(CustomerValidationException exception) {
-        return ErrorUtils.buildExceptionBody(exception, HttpStatus.BAD_REQUEST);
+        return handled(exception, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(CustomerExistsException.class)
     private ResponseEntity<Object> handleException(CustomerExistsException exception) {
-        return ErrorUtils.buildExceptionBody(exception, HttpStatus.CONFLICT);
+        return handled(exception, HttpStatus.CONFLICT);
     }
 
     @ExceptionHandler(CustomerNotFoundException.class)
     private ResponseEntity<Object> handleException(CustomerNotFoundException exception) {
-        return ErrorUtils.buildExceptionBody(exception, HttpStatus.NOT_FOUND);
+        return handled(exception, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(CustomerPreconditionFailedException.class)
+    private ResponseEntity<Object> handleException(CustomerPreconditionFailedException exception) {
+        return handled(exception, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    private ResponseEntity<Object> handleException(OptimisticLockingFailureException exception) {
+        return handled(exception, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    private ResponseEntity<Object> handled(Exception exception, HttpStatus status) {
+        errorCounters.computeIfAbsent(exception.getClass(), type -> Counter.builder("customer.api.errors")
+                        .tag("exception", type.getSimpleName())
+                        .tag("status", String.valueOf(status.value()))
+                        .register(meterRegistry))
+                .increment();
+        return ErrorUtils.buildExceptionBody(exception, status);
     }
 }
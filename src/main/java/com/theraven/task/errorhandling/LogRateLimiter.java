@@ -0,0 +1,55 @@
+package com.theraven.task.errorhandling;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lets a bounded number of log messages through per interval and counts the suppressed ones,
+ * so an error repeated by many requests, such as a missing customer, does not flood the log
+ */
+public class LogRateLimiter {
+    private final int permits;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong windowStart;
+    private final AtomicInteger used = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    /**
+     * Creates a new limiter
+     *
+     * @param permits  the number of messages let through per interval
+     * @param interval the length of the interval
+     */
+    public LogRateLimiter(int permits, Duration interval) {
+        this(permits, interval, System::nanoTime);
+    }
+
+    LogRateLimiter(int permits, Duration interval, LongSupplier nanoClock) {
+        this.permits = permits;
+        this.intervalNanos = interval.toNanos();
+        this.nanoClock = nanoClock;
+        this.windowStart = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Takes a permit to log a message
+     *
+     * @return the number of messages suppressed since the last one let through, or -1 if this one must be suppressed
+     */
+    public long acquire() {
+        long now = nanoClock.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= intervalNanos && windowStart.compareAndSet(start, now)) {
+            used.set(0);
+        }
+
+        if (used.incrementAndGet() > permits) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
@@ -1,6 +1,6 @@
 package com.theraven.task.errorhandling.exception;
 
-public class CustomerExistsException extends RuntimeException {
+public class CustomerExistsException extends DomainException {
 
     public CustomerExistsException(String message) {
         super(message);
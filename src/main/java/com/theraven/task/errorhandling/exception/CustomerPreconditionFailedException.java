@@ -0,0 +1,8 @@
+package com.theraven.task.errorhandling.exception;
+
+public class CustomerPreconditionFailedException extends DomainException {
+
+    public CustomerPreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,6 @@
 package com.theraven.task.errorhandling.exception;
 
-public class CustomerValidationException extends RuntimeException {
+public class CustomerValidationException extends DomainException {
 
     public CustomerValidationException(String message) {
         super(message);
@@ -0,0 +1,13 @@
+package com.theraven.task.errorhandling.exception;
+
+/**
+ * Base of the exceptions reporting an expected outcome, such as a missing customer, answered with an error response.
+ * They are thrown on the hot path of common requests and never logged with a stack trace,
+ * so neither the stack trace nor suppressed exceptions are recorded.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,8 @@
+package com.theraven.task.errorhandling.exception;
+
+public class IdempotencyKeyInProgressException extends DomainException {
+
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.theraven.task.errorhandling.exception;
+
+public class IdempotencyKeyReusedException extends DomainException {
+
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,42 @@
+package com.theraven.task.idempotency;
+
+import com.theraven.task.errorhandling.exception.IdempotencyKeyInProgressException;
+import com.theraven.task.errorhandling.exception.IdempotencyKeyReusedException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Storage of the responses of requests made with an idempotency key.
+ * A key is reserved by the first request using it, completed with its response, and expires after a TTL.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Reserves the key for a request, or returns the response stored for it.
+     * While another request holds the key, waits for it to complete or release the key
+     *
+     * @param key         the idempotency key
+     * @param fingerprint the fingerprint of the request
+     * @param wait        how long to wait for a request holding the key
+     * @return the stored response, or empty if the key has been reserved and the request must run
+     * @throws IdempotencyKeyReusedException     if the key was used for a request with another fingerprint
+     * @throws IdempotencyKeyInProgressException if the key is still held after waiting
+     */
+    Optional<IdempotentResponse> reserve(String key, String fingerprint, Duration wait);
+
+    /**
+     * Stores the response of the request holding the key, handing it to the requests waiting for it
+     *
+     * @param key      the idempotency key
+     * @param response the response to replay
+     */
+    void complete(String key, IdempotentResponse response);
+
+    /**
+     * Gives up the key without a response, so the next request using it runs again
+     *
+     * @param key the idempotency key
+     */
+    void release(String key);
+}
@@ -0,0 +1,14 @@
+package com.theraven.task.idempotency;
+
+import java.util.Map;
+
+/**
+ * The response of the first request made with an idempotency key, replayed to its retries
+ *
+ * @param fingerprint the hash of the method, URI and body of the request, to detect a key reused for another request
+ * @param status      the status code of the response
+ * @param headers     the replayed headers of the response
+ * @param body        the body of the response
+ */
+public record IdempotentResponse(String fingerprint, int status, Map<String, String> headers, byte[] body) {
+}
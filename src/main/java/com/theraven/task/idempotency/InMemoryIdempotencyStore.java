@@ -0,0 +1,102 @@
+package com.theraven.task.idempotency;
+
+import com.theraven.task.cache.BoundedTtlCache;
+import com.theraven.task.errorhandling.exception.IdempotencyKeyInProgressException;
+import com.theraven.task.errorhandling.exception.IdempotencyKeyReusedException;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+/**
+ * Idempotency store keeping the responses in a bounded in-process cache, so retries never reach the database.
+ * Requests waiting for a key are parked on the future of the request holding it.
+ * Keys are only known to the instance that served them.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final BoundedTtlCache<String, IdempotentResponse> responses;
+    private final ConcurrentMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    public InMemoryIdempotencyStore(int maxEntries, Duration ttl) {
+        this.responses = new BoundedTtlCache<>(maxEntries, ttl, Duration.ZERO);
+    }
+
+    @Override
+    public Optional<IdempotentResponse> reserve(String key, String fingerprint, Duration wait) {
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            IdempotentResponse stored = responses.peek(key);
+            if (stored != null) {
+                checkFingerprint(key, stored.fingerprint(), fingerprint);
+                return Optional.of(stored);
+            }
+
+            Reservation reservation = new Reservation(fingerprint);
+            Reservation holder = reservations.putIfAbsent(key, reservation);
+            if (holder == null) {
+                // the previous holder may have completed between the lookup and the reservation
+                stored = responses.peek(key);
+                if (stored == null) {
+                    return Optional.empty();
+                }
+                reservations.remove(key, reservation);
+                checkFingerprint(key, stored.fingerprint(), fingerprint);
+                return Optional.of(stored);
+            }
+
+            checkFingerprint(key, holder.fingerprint, fingerprint);
+            IdempotentResponse response = await(key, holder, deadline);
+            if (response != null) {
+                return Optional.of(response);
+            }
+            // released by the holder, the request runs again
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        responses.put(key, response);
+        Reservation reservation = reservations.remove(key);
+        if (reservation != null) {
+            reservation.response.complete(response);
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        Reservation reservation = reservations.remove(key);
+        if (reservation != null) {
+            reservation.response.complete(null);
+        }
+    }
+
+    private static IdempotentResponse await(String key, Reservation holder, long deadline) {
+        try {
+            return holder.response.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException exception) {
+            throw new IdempotencyKeyInProgressException("A request with idempotency key " + key
+                    + " is still in progress.");
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException("Interrupted while waiting for idempotency key " + key + ".");
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+    private static void checkFingerprint(String key, String stored, String fingerprint) {
+        if (!stored.equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException("Idempotency key " + key + " was used for another request.");
+        }
+    }
+
+    private static final class Reservation {
+        private final String fingerprint;
+        private final CompletableFuture<IdempotentResponse> response = new CompletableFuture<>();
+
+        private Reservation(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
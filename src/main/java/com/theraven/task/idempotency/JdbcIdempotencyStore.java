@@ -0,0 +1,157 @@
+package com.theraven.task.idempotency;
+
+import com.theraven.task.errorhandling.exception.IdempotencyKeyInProgressException;
+import com.theraven.task.errorhandling.exception.IdempotencyKeyReusedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Idempotency store backed by the idempotency_key table, so keys are shared by all instances.
+ * <p>
+ * A key is reserved by inserting its row, the primary key letting a single request win.
+ * The row is held for at most the lock timeout, after which a request of a crashed instance is taken over.
+ * Requests waiting for a key poll its row until the holder stores the response or gives the key up.
+ */
+@Slf4j
+public class JdbcIdempotencyStore implements IdempotencyStore {
+    private static final String INSERT = """
+            INSERT INTO idempotency_key (idempotency_key, fingerprint, expires_at)
+            VALUES (?, ?, ?)
+            """;
+    private static final String SELECT = """
+            SELECT fingerprint, status, headers, body, expires_at
+            FROM idempotency_key
+            WHERE idempotency_key = ?
+            """;
+    private static final String COMPLETE = """
+            UPDATE idempotency_key
+            SET status = ?, headers = ?, body = ?, expires_at = ?
+            WHERE idempotency_key = ? AND status IS NULL
+            """;
+    private static final String RELEASE = "DELETE FROM idempotency_key WHERE idempotency_key = ? AND status IS NULL";
+    private static final String DELETE_EXPIRED_KEY =
+            "DELETE FROM idempotency_key WHERE idempotency_key = ? AND expires_at <= ?";
+    private static final String DELETE_EXPIRED = "DELETE FROM idempotency_key WHERE expires_at <= ?";
+    private static final long POLL_INTERVAL_MS = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+    private final Duration lockTimeout;
+
+    public JdbcIdempotencyStore(DataSource dataSource, Duration ttl, Duration lockTimeout) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.ttl = ttl;
+        this.lockTimeout = lockTimeout;
+    }
+
+    @Override
+    public Optional<IdempotentResponse> reserve(String key, String fingerprint, Duration wait) {
+        long deadline = System.nanoTime() + wait.toNanos();
+        while (true) {
+            long now = System.currentTimeMillis();
+            try {
+                jdbcTemplate.update(INSERT, key, fingerprint, now + lockTimeout.toMillis());
+                return Optional.empty();
+            } catch (DuplicateKeyException exception) {
+                log.debug("Idempotency key {} is already reserved", key);
+            }
+
+            List<StoredRow> rows = jdbcTemplate.query(SELECT, JdbcIdempotencyStore::mapRow, key);
+            if (rows.isEmpty()) {
+                continue;
+            }
+            StoredRow row = rows.get(0);
+            if (row.expiresAt() <= now) {
+                jdbcTemplate.update(DELETE_EXPIRED_KEY, key, now);
+                continue;
+            }
+            if (!row.response().fingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException("Idempotency key " + key + " was used for another request.");
+            }
+            if (row.completed()) {
+                return Optional.of(row.response());
+            }
+
+            long remainingMs = Duration.ofNanos(deadline - System.nanoTime()).toMillis();
+            if (remainingMs <= 0) {
+                throw new IdempotencyKeyInProgressException("A request with idempotency key " + key
+                        + " is still in progress.");
+            }
+            pause(key, Math.min(POLL_INTERVAL_MS, remainingMs));
+        }
+    }
+
+    @Override
+    public void complete(String key, IdempotentResponse response) {
+        jdbcTemplate.update(COMPLETE, response.status(), encodeHeaders(response.headers()), response.body(),
+                System.currentTimeMillis() + ttl.toMillis(), key);
+    }
+
+    @Override
+    public void release(String key) {
+        jdbcTemplate.update(RELEASE, key);
+    }
+
+    /**
+     * Deletes the expired keys
+     */
+    @Scheduled(fixedDelayString = "${customer.idempotency.purge-interval-ms}",
+            initialDelayString = "${customer.idempotency.purge-interval-ms}")
+    public void purgeExpired() {
+        int purged = jdbcTemplate.update(DELETE_EXPIRED, System.currentTimeMillis());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private static void pause(String key, long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException("Interrupted while waiting for idempotency key " + key + ".");
+        }
+    }
+
+    private static StoredRow mapRow(ResultSet resultSet, int rowNum) throws SQLException {
+        int status = resultSet.getInt("status");
+        boolean completed = !resultSet.wasNull();
+        IdempotentResponse response = new IdempotentResponse(resultSet.getString("fingerprint"), status,
+                decodeHeaders(resultSet.getString("headers")), resultSet.getBytes("body"));
+        return new StoredRow(response, completed, resultSet.getLong("expires_at"));
+    }
+
+    private static String encodeHeaders(Map<String, String> headers) {
+        StringBuilder encoded = new StringBuilder();
+        headers.forEach((name, value) -> encoded.append(name).append(": ").append(value).append('\n'));
+        return encoded.toString();
+    }
+
+    private static Map<String, String> decodeHeaders(String encoded) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (encoded == null) {
+            return headers;
+        }
+        for (String line : encoded.split("\n")) {
+            int separator = line.indexOf(": ");
+            if (separator > 0) {
+                headers.put(line.substring(0, separator), line.substring(separator + 2));
+            }
+        }
+        return headers;
+    }
+
+    private record StoredRow(IdempotentResponse response, boolean completed, long expiresAt) {
+    }
+}
@@ -0,0 +1 @@
+ALTER TABLE customer ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,14 @@
+-- Soft-deleted customers are moved here after a retention period, keeping the customer table small.
+CREATE TABLE customer_archive
+(
+    id          BIGINT PRIMARY KEY,
+    created_at  BIGINT,
+    updated_at  BIGINT,
+    full_name   VARCHAR(50)         NOT NULL,
+    email       VARCHAR(100) UNIQUE NOT NULL,
+    phone       VARCHAR(14),
+    version     BIGINT              NOT NULL,
+    archived_at BIGINT              NOT NULL
+);
+
+CREATE INDEX customer_active_updated_at_idx ON customer (is_active, updated_at);
@@ -0,0 +1,2 @@
+-- Serves the change feed, which reads customers in (updated_at, id) order after a cursor.
+CREATE INDEX customer_updated_at_id_idx ON customer (updated_at, id);
@@ -0,0 +1,13 @@
+-- Responses of requests made with an Idempotency-Key header, replayed to their retries until they expire.
+-- A row without status is held by a request still in progress.
+CREATE TABLE idempotency_key
+(
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    fingerprint     VARCHAR(64) NOT NULL,
+    status          INTEGER,
+    headers         VARCHAR(2000),
+    body            BYTEA,
+    expires_at      BIGINT      NOT NULL
+);
+
+CREATE INDEX idempotency_key_expires_at_idx ON idempotency_key (expires_at);
@@ -0,0 +1,6 @@
+-- Runs on every connection of the local replica: exposes the tables of the primary H2 database
+-- as read-only linked tables, so the replica pool serves the primary's data over separate connections.
+CREATE LINKED TABLE IF NOT EXISTS customer
+    ('org.h2.Driver', 'jdbc:h2:mem:test_task', 'sa', '', 'PUBLIC', 'CUSTOMER') READONLY;
+CREATE LINKED TABLE IF NOT EXISTS customer_archive
+    ('org.h2.Driver', 'jdbc:h2:mem:test_task', 'sa', '', 'PUBLIC', 'CUSTOMER_ARCHIVE') READONLY;
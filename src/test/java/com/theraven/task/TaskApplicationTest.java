@@ -0,0 +1,19 @@
+package com.theraven.task;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class TaskApplicationTest {
+
+    @Value("${customer.export.fetch-size}")
+    private int exportFetchSize;
+
+    @Test
+    void testContextLoadsWithDefaultProperties() {
+        assertEquals(1000, exportFetchSize);
+    }
+}
@@ -0,0 +1,39 @@
+package com.theraven.task.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void testNoFalseNegativesAndFalsePositivesNearTarget() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01, 1 << 20);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("customer" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("customer" + i + "@example.com"));
+            if (filter.mightContain("other" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void testSizeCappedByMemoryBudget() {
+        BloomFilter filter = BloomFilter.create(1_000_000, 0.01, 1024);
+
+        assertEquals(1024 * 8, filter.bitSize());
+        assertTrue(filter.hashCount() >= 1);
+    }
+
+    @Test
+    void testInvalidFalsePositiveRate() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1, 1024));
+    }
+}
@@ -0,0 +1,148 @@
+package com.theraven.task.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedTtlCacheTest {
+
+    @Test
+    void testLoadsOnceAndCountsHits() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("1", cache.get(1L, key -> String.valueOf(loads.incrementAndGet())));
+        assertEquals("1", cache.get(1L, key -> String.valueOf(loads.incrementAndGet())));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void testPutReplacesCachedValue() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        cache.put(1L, "first");
+        cache.put(1L, "second");
+
+        assertEquals("second", cache.peek(1L));
+        assertEquals("second", cache.get(1L, key -> "loaded"));
+    }
+
+    @Test
+    void testNegativeEntryAndInvalidation() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        cache.putAbsent(1L);
+        assertNull(cache.get(1L, key -> "loaded"));
+        assertEquals(1, cache.stats().negativeHits());
+
+        cache.invalidate(1L);
+        assertEquals("loaded", cache.get(1L, key -> "loaded"));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void testExpiredEntryIsReloaded() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(100, Duration.ZERO, Duration.ZERO);
+
+        cache.get(1L, key -> "first");
+        assertEquals("second", cache.get(1L, key -> "second"));
+        assertEquals(2, cache.stats().misses());
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(16, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        for (long key = 0; key < 1000; key++) {
+            cache.get(key, String::valueOf);
+        }
+
+        assertTrue(cache.stats().size() <= 16);
+        assertEquals(1000 - cache.stats().size(), cache.stats().evictions());
+    }
+
+    @Test
+    void testSizeIsBoundedBelowSegmentCount() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(5, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        for (long key = 0; key < 1000; key++) {
+            cache.get(key, String::valueOf);
+        }
+
+        assertEquals(5, cache.stats().size());
+    }
+
+    @Test
+    void testSizeIsBoundedWithRemainder() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        for (long key = 0; key < 1000; key++) {
+            cache.get(key, String::valueOf);
+        }
+
+        assertEquals(100, cache.stats().size());
+    }
+
+    @Test
+    void testLoadRacingWithInvalidationIsNotStored() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        cache.get(1L, key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertEquals("fresh", cache.get(1L, key -> "fresh"));
+    }
+
+    @Test
+    void testLoadsAreNotStoredWhileStoreConditionFails() {
+        AtomicBoolean storeLoads = new AtomicBoolean(false);
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(100, Duration.ofMinutes(1), Duration.ofMinutes(1),
+                storeLoads::get);
+
+        assertEquals("stale", cache.get(1L, key -> "stale"));
+        assertNull(cache.get(2L, key -> null));
+        assertEquals(Map.of(3L, "stale"), cache.getAll(List.of(3L), keys -> Map.of(3L, "stale")));
+        assertEquals(0, cache.stats().size());
+
+        storeLoads.set(true);
+        assertEquals("fresh", cache.get(1L, key -> "fresh"));
+        assertEquals("fresh", cache.get(1L, key -> "loaded"));
+    }
+
+    @Test
+    void testDisabledCacheAlwaysLoads() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(0, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+        cache.get(1L, key -> "first");
+        assertEquals("second", cache.get(1L, key -> "second"));
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    void testGetAllLoadsOnlyMissesAtOnce() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        cache.get(1L, String::valueOf);
+        cache.putAbsent(2L);
+
+        Map<Long, String> values = cache.getAll(List.of(1L, 2L, 3L, 4L, 3L), keys -> {
+            assertEquals(Set.of(3L, 4L), keys);
+            return Map.of(3L, "3");
+        });
+
+        assertEquals(Map.of(1L, "1", 3L, "3"), values);
+        assertEquals(Map.of(1L, "1", 3L, "3"), cache.getAll(List.of(1L, 2L, 3L, 4L), keys -> fail("all keys are cached")));
+        assertEquals(3, cache.stats().misses());
+    }
+}
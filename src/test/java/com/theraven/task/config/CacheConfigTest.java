@@ -0,0 +1,51 @@
+package com.theraven.task.config;
+
+import com.theraven.task.cache.BoundedTtlCache;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import com.theraven.task.datasource.ReadWriteRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheConfigTest {
+
+    private final CacheConfig cacheConfig = new CacheConfig();
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testReplicaReadsAreNotCached() {
+        BoundedTtlCache<Long, CustomerResponseDto> cache = customerCache(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // a customer created on the primary but not replicated yet
+        assertNull(cache.get(1L, key -> null));
+
+        try (ReadWriteRoutingDataSource.PrimaryPin ignored = ReadWriteRoutingDataSource.pinPrimary()) {
+            CustomerResponseDto customer = new CustomerResponseDto(1L, "Dmytro Markevych", "dmytro@gmail.com", null, 0L);
+            assertSame(customer, cache.get(1L, key -> customer));
+        }
+        assertEquals(1, cache.stats().size());
+    }
+
+    @Test
+    void testReadOnlyLoadsAreCachedWithoutReplica() {
+        BoundedTtlCache<Long, CustomerResponseDto> cache = customerCache(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        cache.get(1L, key -> null);
+
+        assertEquals(1, cache.stats().size());
+    }
+
+    private BoundedTtlCache<Long, CustomerResponseDto> customerCache(boolean replicaEnabled) {
+        return cacheConfig.customerCache(100, Duration.ofMinutes(1), Duration.ofSeconds(30), replicaEnabled);
+    }
+}
@@ -0,0 +1,48 @@
+package com.theraven.task.customer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerArchiveJobTest {
+
+    @Mock
+    private CustomerArchiveRepository customerArchiveRepository;
+
+    @Mock
+    private CustomerEntityCache customerEntityCache;
+
+    private CustomerMetrics customerMetrics;
+
+    private CustomerArchiveJob customerArchiveJob;
+
+    @BeforeEach
+    public void setUp() {
+        customerMetrics = spy(new CustomerMetrics(new SimpleMeterRegistry()));
+        customerArchiveJob = new CustomerArchiveJob(customerArchiveRepository, customerMetrics,
+                customerEntityCache, new CustomerShards(false, 1, 1));
+        ReflectionTestUtils.setField(customerArchiveJob, "afterDays", 30);
+        ReflectionTestUtils.setField(customerArchiveJob, "batchSize", 2);
+        ReflectionTestUtils.setField(customerArchiveJob, "pauseMs", 0L);
+    }
+
+    @Test
+    void testArchiveRunsBatchesUntilOneIsNotFull() {
+        when(customerArchiveRepository.archiveBatch(anyLong(), eq(2), anyLong())).thenReturn(2, 2, 1);
+
+        customerArchiveJob.archive();
+
+        verify(customerArchiveRepository, times(3)).archiveBatch(anyLong(), eq(2), anyLong());
+        verify(customerMetrics, times(3)).recordArchiveBatch(anyInt(), anyLong());
+        verify(customerEntityCache).evictAll();
+    }
+}
@@ -0,0 +1,90 @@
+package com.theraven.task.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerArchiveRepositoryTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private CustomerArchiveRepository customerArchiveRepository;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScripts("db/migration/V1__init.db.sql", "db/vendor/h2/V2__customer_sequence.sql",
+                        "db/migration/V3__customer_version.sql", "db/migration/V5__customer_archive.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("""
+                INSERT INTO customer (id, created_at, updated_at, full_name, email, phone, is_active) VALUES
+                    (1, 0, 100, 'Old Deleted', 'old@example.com', NULL, FALSE),
+                    (2, 0, 200, 'Other Deleted', 'other@example.com', NULL, FALSE),
+                    (3, 0, 900, 'Recently Deleted', 'recent@example.com', NULL, FALSE),
+                    (4, 0, 100, 'Active', 'active@example.com', NULL, TRUE)
+                """);
+        customerArchiveRepository = new CustomerArchiveRepository(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void testArchiveBatchMovesOnlyExpiredDeletedCustomers() {
+        assertEquals(1, customerArchiveRepository.archiveBatch(500, 1, 1000));
+        assertEquals(1, customerArchiveRepository.archiveBatch(500, 1, 1000));
+        assertEquals(0, customerArchiveRepository.archiveBatch(500, 1, 1000));
+
+        assertEquals(List.of(3L, 4L), jdbcTemplate.queryForList("SELECT id FROM customer ORDER BY id", Long.class));
+        assertEquals(List.of(1L, 2L),
+                jdbcTemplate.queryForList("SELECT id FROM customer_archive ORDER BY id", Long.class));
+    }
+
+    @Test
+    void testFindArchivedEmails() {
+        customerArchiveRepository.archiveBatch(500, 10, 1000);
+
+        assertEquals(List.of("old@example.com"),
+                customerArchiveRepository.findArchivedEmails(List.of("old@example.com", "active@example.com")));
+        assertEquals(List.of(), customerArchiveRepository.findArchivedEmails(List.of()));
+    }
+
+    @Test
+    void testRestoreMovesArchivedCustomerBackAsDeleted() {
+        customerArchiveRepository.archiveBatch(500, 10, 1000);
+
+        assertEquals(1, customerArchiveRepository.restore(List.of("old@example.com", "unknown@example.com")));
+
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+                "SELECT is_active FROM customer WHERE id = 1", Boolean.class));
+        assertEquals(List.of(2L), jdbcTemplate.queryForList("SELECT id FROM customer_archive", Long.class));
+        assertEquals(0, customerArchiveRepository.restore(List.of("active@example.com")));
+    }
+
+    @Test
+    void testRestoreKeepsArchivedCopiesOfPresentEmails() {
+        customerArchiveRepository.archiveBatch(500, 10, 1000);
+        jdbcTemplate.update("INSERT INTO customer (id, created_at, updated_at, full_name, email, phone, is_active) "
+                + "VALUES (5, 0, 1000, 'Other Again', 'other@example.com', NULL, TRUE)");
+
+        assertEquals(1, customerArchiveRepository.restore(List.of("old@example.com", "other@example.com")));
+
+        assertEquals(List.of(1L, 3L, 4L, 5L),
+                jdbcTemplate.queryForList("SELECT id FROM customer ORDER BY id", Long.class));
+        assertEquals(List.of(2L), jdbcTemplate.queryForList("SELECT id FROM customer_archive", Long.class));
+    }
+}
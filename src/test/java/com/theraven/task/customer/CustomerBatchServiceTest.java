@@ -0,0 +1,159 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.cache.BoundedTtlCache;
+import com.theraven.task.customer.dto.CustomerBatchItemResultDto;
+import com.theraven.task.customer.dto.CustomerBatchItemStatus;
+import com.theraven.task.customer.dto.CustomerRequestDto;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import com.theraven.task.errorhandling.exception.CustomerValidationException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerBatchServiceTest {
+
+    private final Long TIME = new Date().getTime();
+    private final String FULL_NAME = "Dmytro Markevych";
+    private final String PHONE_NUMBER = "+31234567890";
+
+    @Mock
+    private CustomerMapper customerMapper;
+
+    @Mock
+    private CustomerService customerService;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private CustomerSearchRepository customerSearchRepository;
+
+    @Mock
+    private CustomerArchiveRepository customerArchiveRepository;
+
+    @Mock
+    private CustomerEmailFilter customerEmailFilter;
+
+    @Mock
+    private ActiveCustomerCounter activeCustomerCounter;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private CustomerBatchService customerBatchService;
+
+    @BeforeEach
+    public void setUp() {
+        customerBatchService = new CustomerBatchService(customerMapper, customerService, customerRepository,
+                customerSearchRepository, customerArchiveRepository, customerEmailFilter, activeCustomerCounter,
+                new BoundedTtlCache<>(100, Duration.ofMinutes(1), Duration.ofMinutes(1)), transactionTemplate, Validation.buildDefaultValidatorFactory().getValidator(),
+                new CustomerShards(false, 1, 1));
+        ReflectionTestUtils.setField(customerBatchService, "maxSize", 10);
+        ReflectionTestUtils.setField(customerBatchService, "chunkSize", 2);
+    }
+
+    @Test
+    void testCreateCustomers() {
+        CustomerRequestDto created = new CustomerRequestDto(FULL_NAME, "new@gmail.com", PHONE_NUMBER);
+        CustomerRequestDto reactivated = new CustomerRequestDto(FULL_NAME, "deleted@gmail.com", PHONE_NUMBER);
+        CustomerRequestDto duplicate = new CustomerRequestDto(FULL_NAME, "active@gmail.com", PHONE_NUMBER);
+        CustomerRequestDto invalid = new CustomerRequestDto("", "not an email", PHONE_NUMBER);
+
+        Customer newCustomer = new Customer(1L, TIME, TIME, FULL_NAME, "new@gmail.com", PHONE_NUMBER, true, 0L);
+        Customer deletedCustomer = new Customer(2L, TIME, TIME, "Old Name", "deleted@gmail.com", null, false, 0L);
+        Customer activeCustomer = new Customer(3L, TIME, TIME, FULL_NAME, "active@gmail.com", PHONE_NUMBER, true, 0L);
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(customerEmailFilter.mightExist(any())).thenReturn(true);
+        when(customerRepository.findAllByEmailIn(any()))
+                .thenReturn(List.of(deletedCustomer))
+                .thenReturn(List.of(activeCustomer));
+        when(customerMapper.mapRequestDtoToEntity(created)).thenReturn(newCustomer);
+        when(customerRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(customerMapper.mapEntityToResponseDto(any(Customer.class))).thenReturn(new CustomerResponseDto());
+
+        List<CustomerBatchItemResultDto> results = customerBatchService.createCustomers(
+                List.of(created, reactivated, duplicate, invalid));
+
+        assertEquals(List.of(CustomerBatchItemStatus.CREATED, CustomerBatchItemStatus.REACTIVATED,
+                        CustomerBatchItemStatus.DUPLICATE, CustomerBatchItemStatus.INVALID),
+                results.stream().map(CustomerBatchItemResultDto::getStatus).toList());
+        assertTrue(deletedCustomer.isActive());
+        assertEquals(FULL_NAME, deletedCustomer.getFullName());
+        verify(customerRepository, times(2)).findAllByEmailIn(any());
+        verify(activeCustomerCounter, times(1)).add(2L);
+        verify(activeCustomerCounter, times(1)).add(0L);
+        verify(customerEmailFilter).add("new@gmail.com");
+        verify(customerEmailFilter, never()).add("deleted@gmail.com");
+    }
+
+    @Test
+    void testCreateCustomersSkipsLookupOfUnknownEmails() {
+        CustomerRequestDto first = new CustomerRequestDto(FULL_NAME, "first@gmail.com", PHONE_NUMBER);
+        CustomerRequestDto second = new CustomerRequestDto(FULL_NAME, "second@gmail.com", PHONE_NUMBER);
+        Customer firstCustomer = new Customer(1L, TIME, TIME, FULL_NAME, "first@gmail.com", PHONE_NUMBER, true, 0L);
+        Customer secondCustomer = new Customer(2L, TIME, TIME, FULL_NAME, "second@gmail.com", PHONE_NUMBER, true, 0L);
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(customerEmailFilter.mightExist(any())).thenReturn(false);
+        when(customerMapper.mapRequestDtoToEntity(first)).thenReturn(firstCustomer);
+        when(customerMapper.mapRequestDtoToEntity(second)).thenReturn(secondCustomer);
+        when(customerRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<CustomerBatchItemResultDto> results = customerBatchService.createCustomers(List.of(first, second));
+
+        assertEquals(List.of(CustomerBatchItemStatus.CREATED, CustomerBatchItemStatus.CREATED),
+                results.stream().map(CustomerBatchItemResultDto::getStatus).toList());
+        verify(customerRepository, never()).findAllByEmailIn(any());
+        verifyNoInteractions(customerArchiveRepository);
+        verify(customerEmailFilter).add("first@gmail.com");
+        verify(customerEmailFilter).add("second@gmail.com");
+    }
+
+    @Test
+    void testCreateCustomersDuplicateWithinBatch() {
+        CustomerRequestDto first = new CustomerRequestDto(FULL_NAME, "same@gmail.com", PHONE_NUMBER);
+        CustomerRequestDto second = new CustomerRequestDto(FULL_NAME, "same@gmail.com", PHONE_NUMBER);
+        Customer customer = new Customer(1L, TIME, TIME, FULL_NAME, "same@gmail.com", PHONE_NUMBER, true, 0L);
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(customerEmailFilter.mightExist(any())).thenReturn(true);
+        when(customerRepository.findAllByEmailIn(any())).thenReturn(Collections.emptyList());
+        when(customerMapper.mapRequestDtoToEntity(first)).thenReturn(customer);
+        when(customerRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<CustomerBatchItemResultDto> results = customerBatchService.createCustomers(List.of(first, second));
+
+        assertEquals(CustomerBatchItemStatus.CREATED, results.get(0).getStatus());
+        assertEquals(CustomerBatchItemStatus.DUPLICATE, results.get(1).getStatus());
+    }
+
+    @Test
+    void testCreateCustomersExceedingMaxSize() {
+        List<CustomerRequestDto> requestDtos = Collections.nCopies(11,
+                new CustomerRequestDto(FULL_NAME, "dmytro@gmail.com", PHONE_NUMBER));
+
+        assertThrows(CustomerValidationException.class, () -> customerBatchService.createCustomers(requestDtos));
+        verifyNoInteractions(customerRepository);
+    }
+}
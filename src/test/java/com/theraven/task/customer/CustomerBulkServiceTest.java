@@ -0,0 +1,101 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.cache.BoundedTtlCache;
+import com.theraven.task.customer.dto.CustomerBulkRequestDto;
+import com.theraven.task.customer.dto.CustomerBulkResultDto;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import com.theraven.task.errorhandling.exception.CustomerValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerBulkServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private CustomerSearchRepository customerSearchRepository;
+
+    @Mock
+    private ActiveCustomerCounter activeCustomerCounter;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final BoundedTtlCache<Long, CustomerResponseDto> customerCache =
+            new BoundedTtlCache<>(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+    private CustomerBulkService customerBulkService;
+
+    @BeforeEach
+    public void setUp() {
+        customerBulkService = new CustomerBulkService(customerRepository, customerSearchRepository,
+                activeCustomerCounter, customerCache, transactionTemplate, new CustomerShards(false, 1, 1));
+        ReflectionTestUtils.setField(customerBulkService, "maxIds", 5);
+        ReflectionTestUtils.setField(customerBulkService, "chunkSize", 2);
+    }
+
+    @Test
+    void testDeleteCustomersByIdsInChunks() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(customerRepository.deactivateAllById(eq(List.of(1L, 2L)), anyLong())).thenReturn(2);
+        when(customerRepository.deactivateAllById(eq(List.of(3L)), anyLong())).thenReturn(0);
+
+        CustomerBulkResultDto result = customerBulkService.deleteCustomers(
+                new CustomerBulkRequestDto(Arrays.asList(1L, 2L, 2L, null, 3L), null));
+
+        assertEquals(2L, result.getAffected());
+        assertEquals(1L, result.getMissing());
+        verify(activeCustomerCounter).add(-2L);
+        verify(customerSearchRepository).remove(3L);
+        assertNull(customerCache.get(1L, id -> fail("deleted customer must be cached as absent")));
+    }
+
+    @Test
+    void testReactivateCustomersCreatedBefore() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(customerRepository.findIdsCreatedBefore(100L, false, 0L, PageRequest.of(0, 2))).thenReturn(List.of(1L, 4L));
+        when(customerRepository.findIdsCreatedBefore(100L, false, 4L, PageRequest.of(0, 2))).thenReturn(List.of(7L));
+        when(customerRepository.activateAllById(eq(List.of(1L, 4L)), anyLong())).thenReturn(2);
+        when(customerRepository.activateAllById(eq(List.of(7L)), anyLong())).thenReturn(1);
+
+        CustomerBulkResultDto result = customerBulkService.reactivateCustomers(new CustomerBulkRequestDto(null, 100L));
+
+        assertEquals(3L, result.getAffected());
+        assertNull(result.getMissing());
+        verify(customerSearchRepository).indexAll(List.of(7L));
+        verify(activeCustomerCounter).add(2L);
+        verify(activeCustomerCounter).add(1L);
+    }
+
+    @Test
+    void testBulkRequestMustSelectExactlyOneWay() {
+        assertThrows(CustomerValidationException.class,
+                () -> customerBulkService.deleteCustomers(new CustomerBulkRequestDto(List.of(1L), 100L)));
+        assertThrows(CustomerValidationException.class,
+                () -> customerBulkService.deleteCustomers(new CustomerBulkRequestDto(null, null)));
+        assertThrows(CustomerValidationException.class, () -> customerBulkService.deleteCustomers(
+                new CustomerBulkRequestDto(List.of(1L, 2L, 3L, 4L, 5L, 6L), null)));
+        verifyNoInteractions(customerRepository);
+    }
+}
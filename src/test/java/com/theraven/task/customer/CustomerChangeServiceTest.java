@@ -0,0 +1,82 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.customer.dto.CustomerChangeDto;
+import com.theraven.task.customer.dto.CustomerChangePageDto;
+import com.theraven.task.errorhandling.exception.CustomerValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerChangeServiceTest {
+
+    private final String FULL_NAME = "Dmytro Markevych";
+    private final String EMAIL = "dmytro@gmail.com";
+    private final String PHONE_NUMBER = "+31234567890";
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Spy
+    private CustomerShards customerShards = new CustomerShards(false, 1, 1);
+
+    @InjectMocks
+    private CustomerChangeService customerChangeService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(customerChangeService, "safetyLag", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testGetChangesReturnsTombstonesAndCursor() {
+        CustomerChangeDto updated = new CustomerChangeDto(1L, FULL_NAME, EMAIL, PHONE_NUMBER, 100L, false);
+        CustomerChangeDto deleted = new CustomerChangeDto(2L, FULL_NAME, "deleted@gmail.com", null, 200L, true);
+        CustomerChangeDto next = new CustomerChangeDto(3L, FULL_NAME, "next@gmail.com", null, 300L, false);
+
+        when(customerRepository.findChangesAfter(eq(Long.MIN_VALUE), eq(0L), anyLong(), eq(PageRequest.of(0, 3))))
+                .thenReturn(new ArrayList<>(List.of(updated, deleted, next)));
+
+        CustomerChangePageDto page = customerChangeService.getChanges("", 2);
+
+        assertEquals(List.of(updated, deleted), page.getChanges());
+        assertTrue(page.isHasMore());
+        assertEquals(CursorUtils.encode(200L, 2L), page.getNextCursor());
+        assertNull(deleted.getEmail());
+        assertEquals(EMAIL, updated.getEmail());
+    }
+
+    @Test
+    void testGetChangesWithoutNewChangesKeepsCursor() {
+        String since = CursorUtils.encode(200L, 2L);
+        when(customerRepository.findChangesAfter(eq(200L), eq(2L), anyLong(), eq(PageRequest.of(0, 11))))
+                .thenReturn(List.of());
+
+        CustomerChangePageDto page = customerChangeService.getChanges(since, 10);
+
+        assertTrue(page.getChanges().isEmpty());
+        assertFalse(page.isHasMore());
+        assertEquals(since, page.getNextCursor());
+    }
+
+    @Test
+    void testGetChangesRejectsOversizedPage() {
+        assertThrows(CustomerValidationException.class, () -> customerChangeService.getChanges("", 1001));
+        verifyNoInteractions(customerRepository);
+    }
+}
@@ -0,0 +1,86 @@
+package com.theraven.task.customer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerEmailFilterTest {
+
+    private EmbeddedDatabase dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private CustomerEmailFilter customerEmailFilter;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScripts("db/migration/V1__init.db.sql", "db/vendor/h2/V2__customer_sequence.sql",
+                        "db/migration/V3__customer_version.sql", "db/migration/V5__customer_archive.sql")
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("""
+                INSERT INTO customer (id, created_at, updated_at, full_name, email, phone, is_active) VALUES
+                    (1, 0, 100, 'Active', 'active@example.com', NULL, TRUE),
+                    (2, 0, 100, 'Deleted', 'deleted@example.com', NULL, FALSE)
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO customer_archive (id, created_at, updated_at, full_name, email, phone, version, archived_at)
+                VALUES (3, 0, 100, 'Archived', 'archived@example.com', NULL, 0, 100)
+                """);
+        meterRegistry = new SimpleMeterRegistry();
+        customerEmailFilter = new CustomerEmailFilter(dataSource, new DataSourceTransactionManager(dataSource),
+                new CustomerMetrics(meterRegistry), new CustomerShards(false, 1, 1), true, 0.01, DataSize.ofKilobytes(64));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void testEveryEmailMightExistBeforeRebuild() {
+        assertTrue(customerEmailFilter.mightExist("new@example.com"));
+    }
+
+    @Test
+    void testRebuildCoversCustomersAndArchive() {
+        customerEmailFilter.rebuild();
+
+        assertTrue(customerEmailFilter.mightExist("active@example.com"));
+        assertTrue(customerEmailFilter.mightExist("deleted@example.com"));
+        assertTrue(customerEmailFilter.mightExist("archived@example.com"));
+        assertFalse(customerEmailFilter.mightExist("new@example.com"));
+        assertEquals(1.0, meterRegistry.get("customer.email-filter.lookups").tag("result", "skipped")
+                .counter().count());
+        assertEquals(3.0, meterRegistry.get("customer.email-filter.lookups").tag("result", "performed")
+                .counter().count());
+    }
+
+    @Test
+    void testAddedEmailMightExist() {
+        customerEmailFilter.rebuild();
+        customerEmailFilter.add("new@example.com");
+
+        assertTrue(customerEmailFilter.mightExist("new@example.com"));
+    }
+
+    @Test
+    void testDisabledFilterLetsEveryEmailThrough() {
+        CustomerEmailFilter disabled = new CustomerEmailFilter(dataSource, new DataSourceTransactionManager(dataSource),
+                new CustomerMetrics(meterRegistry), new CustomerShards(false, 1, 1), false, 0.01, DataSize.ofKilobytes(64));
+        disabled.rebuild();
+
+        assertTrue(disabled.mightExist("new@example.com"));
+    }
+}
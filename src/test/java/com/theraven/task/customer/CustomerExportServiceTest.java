@@ -0,0 +1,117 @@
+package com.theraven.task.customer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import com.theraven.task.datasource.ShardRoutingDataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CustomerExportServiceTest {
+
+    private EmbeddedDatabase dataSource;
+    private CustomerExportService customerExportService;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("db/migration/V1__init.db.sql")
+                .build();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO customer (id, full_name, email, phone, is_active) VALUES "
+                + "(1, 'Dmytro Markevych', 'dmytro@gmail.com', '+31234567890', TRUE), "
+                + "(2, 'Deleted Customer', 'deleted@gmail.com', NULL, FALSE), "
+                + "(3, 'Doe, \"Johnny\"', 'john.doe@example.com', NULL, TRUE)");
+
+        customerExportService = new CustomerExportService(dataSource, new DataSourceTransactionManager(dataSource),
+                new ObjectMapper(), new CustomerShards(false, 1, 1), 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void testExportNdjson() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        customerExportService.exportCustomers(CustomerFileFormat.NDJSON, outputStream);
+
+        assertEquals("""
+                {"id":1,"fullName":"Dmytro Markevych","email":"dmytro@gmail.com","phone":"+31234567890"}
+                {"id":3,"fullName":"Doe, \\"Johnny\\"","email":"john.doe@example.com","phone":null}
+                """, outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExportCsv() {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        customerExportService.exportCustomers(CustomerFileFormat.CSV, outputStream);
+
+        assertEquals("id,fullName,email,phone\n"
+                + "1,Dmytro Markevych,dmytro@gmail.com,+31234567890\n"
+                + "3,\"Doe, \"\"Johnny\"\"\",john.doe@example.com,\n", outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testExportCborSequence() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        customerExportService.exportCustomers(CustomerFileFormat.CBOR, outputStream);
+
+        List<JsonNode> customers = new CBORMapper().readerFor(JsonNode.class)
+                .<JsonNode>readValues(outputStream.toByteArray()).readAll();
+        assertEquals(2, customers.size());
+        assertEquals(1L, customers.get(0).get("id").asLong());
+        assertEquals("Doe, \"Johnny\"", customers.get(1).get("fullName").asText());
+        assertTrue(customers.get(1).get("phone").isNull());
+    }
+
+    @Test
+    void testExportMergesShardsById() {
+        EmbeddedDatabase otherShard = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("db/migration/V1__init.db.sql")
+                .build();
+        new JdbcTemplate(otherShard).update("INSERT INTO customer (id, full_name, email, phone, is_active) VALUES "
+                + "(2, 'Second Shard', 'second@example.com', NULL, TRUE), "
+                + "(4, 'Last Customer', 'last@example.com', NULL, TRUE)");
+        ShardRoutingDataSource shards = new ShardRoutingDataSource(List.of(dataSource, otherShard));
+        CustomerShards customerShards = new CustomerShards(true, 2, 2);
+        CustomerExportService shardedExportService = new CustomerExportService(shards,
+                new DataSourceTransactionManager(shards), new ObjectMapper(), customerShards, 1);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        try {
+            shardedExportService.exportCustomers(CustomerFileFormat.CSV, outputStream);
+        } finally {
+            customerShards.shutdown();
+            otherShard.shutdown();
+        }
+
+        assertEquals("id,fullName,email,phone\n"
+                + "1,Dmytro Markevych,dmytro@gmail.com,+31234567890\n"
+                + "2,Second Shard,second@example.com,\n"
+                + "3,\"Doe, \"\"Johnny\"\"\",john.doe@example.com,\n"
+                + "4,Last Customer,last@example.com,\n", outputStream.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,128 @@
+package com.theraven.task.customer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theraven.task.customer.dto.CustomerBatchItemResultDto;
+import com.theraven.task.customer.dto.CustomerBatchItemStatus;
+import com.theraven.task.customer.dto.CustomerImportSummaryDto;
+import com.theraven.task.customer.dto.CustomerRequestDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerImportServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private CustomerBatchService customerBatchService;
+
+    private CustomerImportService customerImportService;
+
+    @BeforeEach
+    public void setUp() {
+        customerImportService = new CustomerImportService(customerBatchService, objectMapper);
+        ReflectionTestUtils.setField(customerImportService, "chunkSize", 2);
+    }
+
+    @Test
+    void testImportNdjson() throws Exception {
+        String input = """
+                {"fullName":"Dmytro Markevych","email":"dmytro@gmail.com","phone":"+31234567890"}
+                not json
+
+                {"fullName":"John Doe","email":"john.doe@example.com"}
+                {"fullName":"Jane Doe","email":"jane.doe@example.com"}
+                """;
+        when(customerBatchService.createChunk(anyList(), anyInt()))
+                .thenReturn(List.of(result(CustomerBatchItemStatus.CREATED), result(CustomerBatchItemStatus.REACTIVATED)))
+                .thenReturn(List.of(result(CustomerBatchItemStatus.DUPLICATE)));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        customerImportService.importCustomers(CustomerFileFormat.NDJSON,
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), outputStream);
+
+        List<String> lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+        CustomerImportSummaryDto summary = objectMapper.readValue(lines.get(lines.size() - 1), CustomerImportSummaryDto.class);
+
+        assertEquals(3, lines.size());
+        assertTrue(summary.isCompleted());
+        assertEquals(4, summary.getProcessed());
+        assertEquals(1, summary.getAccepted());
+        assertEquals(1, summary.getReactivated());
+        assertEquals(1, summary.getDuplicate());
+        assertEquals(1, summary.getInvalid());
+        verify(customerBatchService, times(2)).createChunk(anyList(), anyInt());
+    }
+
+    @Test
+    void testImportNdjsonCountsNonObjectLinesAsInvalid() throws Exception {
+        String input = """
+                null
+                42
+                ["dmytro@gmail.com"]
+                {"fullName":"Dmytro Markevych","email":"dmytro@gmail.com"}
+                """;
+        when(customerBatchService.createChunk(anyList(), anyInt()))
+                .thenReturn(List.of(result(CustomerBatchItemStatus.CREATED)));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        customerImportService.importCustomers(CustomerFileFormat.NDJSON,
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), outputStream);
+
+        List<String> lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+        CustomerImportSummaryDto summary = objectMapper.readValue(lines.get(lines.size() - 1), CustomerImportSummaryDto.class);
+
+        assertTrue(summary.isCompleted());
+        assertEquals(1, summary.getAccepted());
+        assertEquals(3, summary.getInvalid());
+        verify(customerBatchService, times(1)).createChunk(anyList(), anyInt());
+    }
+
+    @Test
+    void testImportCsv() throws Exception {
+        String input = """
+                email,fullName,phone
+                dmytro@gmail.com,"Markevych, Dmytro",+31234567890
+                john.doe@example.com,John Doe,
+                """;
+        CustomerRequestDto first = new CustomerRequestDto("Markevych, Dmytro", "dmytro@gmail.com", "+31234567890");
+        CustomerRequestDto second = new CustomerRequestDto("John Doe", "john.doe@example.com", null);
+        when(customerBatchService.createChunk(List.of(first, second), 0))
+                .thenReturn(List.of(result(CustomerBatchItemStatus.CREATED), result(CustomerBatchItemStatus.CREATED)));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        customerImportService.importCustomers(CustomerFileFormat.CSV,
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), outputStream);
+
+        List<String> lines = outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+        CustomerImportSummaryDto summary = objectMapper.readValue(lines.get(lines.size() - 1), CustomerImportSummaryDto.class);
+
+        assertEquals(2, summary.getAccepted());
+        assertEquals(0, summary.getInvalid());
+    }
+
+    @Test
+    void testParseCsvLine() {
+        assertEquals(Arrays.asList("a", null, "", "b \"c\", d"),
+                CustomerImportService.parseCsvLine("a,,\"\",\"b \"\"c\"\", d\""));
+    }
+
+    private static CustomerBatchItemResultDto result(CustomerBatchItemStatus status) {
+        return new CustomerBatchItemResultDto(0, status, null, null);
+    }
+}
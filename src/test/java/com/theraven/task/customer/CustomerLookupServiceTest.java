@@ -0,0 +1,72 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.cache.BoundedTtlCache;
+import com.theraven.task.customer.dto.CustomerMultiGetDto;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import com.theraven.task.errorhandling.exception.CustomerValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerLookupServiceTest {
+
+    private final Long TIME = new Date().getTime();
+    private final String FULL_NAME = "Dmytro Markevych";
+    private final String PHONE_NUMBER = "+31234567890";
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    private final BoundedTtlCache<Long, CustomerResponseDto> customerCache =
+            new BoundedTtlCache<>(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+    private CustomerLookupService customerLookupService;
+
+    @BeforeEach
+    public void setUp() {
+        customerLookupService = new CustomerLookupService(customerRepository, customerCache,
+                new CustomerShards(false, 1, 1));
+        ReflectionTestUtils.setField(customerLookupService, "maxIds", 5);
+        ReflectionTestUtils.setField(customerLookupService, "chunkSize", 2);
+    }
+
+    @Test
+    void testGetCustomersByIdsInRequestOrder() {
+        CustomerResponseDto first = customer(1L);
+        CustomerResponseDto third = customer(3L);
+        CustomerResponseDto fourth = customer(4L);
+        customerCache.get(3L, id -> third);
+
+        when(customerRepository.findResponsesByIdIn(List.of(4L, 1L))).thenReturn(List.of(first, fourth));
+        when(customerRepository.findResponsesByIdIn(List.of(2L))).thenReturn(List.of());
+
+        CustomerMultiGetDto result = customerLookupService.getCustomersByIds(Arrays.asList(4L, 3L, 1L, 4L, null, 2L));
+
+        assertEquals(List.of(fourth, third, first), result.getContent());
+        assertEquals(List.of(2L), result.getMissing());
+        verify(customerRepository, times(2)).findResponsesByIdIn(anyCollection());
+    }
+
+    @Test
+    void testGetCustomersByIdsRejectsTooManyIds() {
+        assertThrows(CustomerValidationException.class,
+                () -> customerLookupService.getCustomersByIds(List.of(1L, 2L, 3L, 4L, 5L, 6L)));
+        verifyNoInteractions(customerRepository);
+    }
+
+    private CustomerResponseDto customer(Long id) {
+        return new CustomerResponseDto(id, FULL_NAME, "customer" + id + "@gmail.com", PHONE_NUMBER, TIME);
+    }
+}
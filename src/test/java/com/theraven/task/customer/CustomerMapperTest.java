@@ -1,17 +1,17 @@
 package com.theraven.task.customer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 import com.theraven.task.customer.dto.CustomerRequestDto;
 import com.theraven.task.customer.dto.CustomerResponseDto;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.modelmapper.ModelMapper;
 
 import java.util.Date;
 
+/**
+ * Checks the mapper field for field against the ModelMapper based mapping it replaced.
+ */
 class CustomerMapperTest {
 
     private final Long ID = 1L;
@@ -20,32 +20,40 @@ class CustomerMapperTest {
     private final String EMAIL = "dmytro@gmail.com";
     private final String PHONE_NUMBER = "+31234567890";
 
-    private ModelMapper modelMapper;
-    private CustomerMapper customerMapper;
-
-    @BeforeEach
-    public void setUp() {
-        modelMapper = mock(ModelMapper.class);
-        customerMapper = new CustomerMapper(modelMapper);
-    }
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final CustomerMapper customerMapper = new CustomerMapper();
 
     @Test
     public void testMapRequestDtoToEntity() {
         CustomerRequestDto requestDto = new CustomerRequestDto(FULL_NAME, EMAIL, PHONE_NUMBER);
-        Customer expectedUser = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, PHONE_NUMBER, true);
 
-        when(modelMapper.map(requestDto, Customer.class)).thenReturn(expectedUser);
         Customer customer = customerMapper.mapRequestDtoToEntity(requestDto);
-        assertEquals(expectedUser, customer);
+
+        assertEquals(new Customer(null, null, null, FULL_NAME, EMAIL, PHONE_NUMBER, false, null), customer);
+        assertEquals(modelMapper.map(requestDto, Customer.class), customer);
+    }
+
+    @Test
+    public void testMapRequestDtoToEntityWithNulls() {
+        CustomerRequestDto requestDto = new CustomerRequestDto(FULL_NAME, EMAIL, null);
+
+        assertEquals(modelMapper.map(requestDto, Customer.class), customerMapper.mapRequestDtoToEntity(requestDto));
     }
 
     @Test
     void testMapEntityToResponseDto() {
-        Customer customer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, PHONE_NUMBER, true);
-        CustomerResponseDto customerResponseDto = new CustomerResponseDto(ID, FULL_NAME, EMAIL, PHONE_NUMBER);
+        Customer customer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, PHONE_NUMBER, true, 0L);
+
+        CustomerResponseDto responseDto = customerMapper.mapEntityToResponseDto(customer);
+
+        assertEquals(new CustomerResponseDto(ID, FULL_NAME, EMAIL, PHONE_NUMBER, TIME), responseDto);
+        assertEquals(modelMapper.map(customer, CustomerResponseDto.class), responseDto);
+    }
+
+    @Test
+    void testMapEntityToResponseDtoWithNulls() {
+        Customer customer = new Customer(ID, null, null, FULL_NAME, EMAIL, null, false, 0L);
 
-        when(modelMapper.map(customer, CustomerResponseDto.class)).thenReturn(customerResponseDto);
-        CustomerResponseDto mappedResponseDto = customerMapper.mapEntityToResponseDto(customer);
-        assertEquals(customerResponseDto, mappedResponseDto);
+        assertEquals(modelMapper.map(customer, CustomerResponseDto.class), customerMapper.mapEntityToResponseDto(customer));
     }
 }
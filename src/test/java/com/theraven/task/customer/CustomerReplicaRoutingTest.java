@@ -0,0 +1,70 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.cache.BoundedTtlCache;
+import com.theraven.task.customer.dto.CustomerRequestDto;
+import com.theraven.task.customer.dto.CustomerResponseDto;
+import com.theraven.task.datasource.ReadWriteRoutingDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("replica")
+class CustomerReplicaRoutingTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerLookupService customerLookupService;
+
+    @Autowired
+    private BoundedTtlCache<Long, CustomerResponseDto> customerCache;
+
+    @MockBean
+    private CustomerSearchRepository customerSearchRepository;
+
+    @Test
+    void testSearchRunsOnReplica() {
+        AtomicReference<ReadWriteRoutingDataSource.Target> target = new AtomicReference<>();
+        when(customerSearchRepository.search(anyString(), anyInt(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            target.set(ReadWriteRoutingDataSource.currentTarget());
+            return List.of();
+        });
+
+        customerService.searchCustomers("markevych", "", 10);
+
+        assertEquals(ReadWriteRoutingDataSource.Target.REPLICA, target.get());
+    }
+
+    @Test
+    void testCustomerLoadedByIdIsCached() {
+        CustomerResponseDto created = customerService.createCustomer(new CustomerRequestDto("Routed Customer",
+                "routed.by.id@example.com", null));
+
+        assertEquals(created.getId(), customerService.getCustomerById(created.getId()).getId());
+
+        assertNotNull(customerCache.peek(created.getId()));
+    }
+
+    @Test
+    void testCustomersLoadedByIdsAreCached() {
+        CustomerResponseDto created = customerService.createCustomer(new CustomerRequestDto("Routed Customer",
+                "routed.by.ids@example.com", null));
+
+        assertEquals(1, customerLookupService.getCustomersByIds(List.of(created.getId())).getContent().size());
+
+        assertNotNull(customerCache.peek(created.getId()));
+    }
+}
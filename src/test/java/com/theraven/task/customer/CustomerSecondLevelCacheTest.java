@@ -0,0 +1,108 @@
+package com.theraven.task.customer;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(CustomerEntityCache.class)
+// every repository call runs in its own session, so repeated reads can only be served by the second-level cache
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerSecondLevelCacheTest {
+    private static final int READS = 10;
+    private static final String FULL_NAME = "Dmytro Markevych";
+    private static final String EMAIL = "dmytro@gmail.com";
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerEntityCache customerEntityCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private Statistics statistics;
+    private Long id;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        id = customerRepository.save(new Customer(null, null, null, FULL_NAME, EMAIL, "+31234567890", true, null))
+                .getId();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        customerRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testRepeatedLookupByIdQueriesOnce() {
+        for (int i = 0; i < READS; i++) {
+            assertEquals(FULL_NAME, customerRepository.findByIdAndActiveTrue(id).orElseThrow().getFullName());
+        }
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(READS - 1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void testRepeatedLookupByEmailQueriesOnce() {
+        for (int i = 0; i < READS; i++) {
+            assertEquals(id, customerRepository.findByEmail(EMAIL).orElseThrow().getId());
+        }
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(READS - 1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void testUpdateIsReadBack() {
+        customerRepository.findByIdAndActiveTrue(id).orElseThrow();
+        Customer customer = customerRepository.findByIdAndActiveTrue(id).orElseThrow();
+        customer.setFullName("John Doe");
+        customerRepository.save(customer);
+
+        assertEquals("John Doe", customerRepository.findByIdAndActiveTrue(id).orElseThrow().getFullName());
+    }
+
+    @Test
+    void testDeleteIsReadBack() {
+        Customer customer = customerRepository.findByIdAndActiveTrue(id).orElseThrow();
+        customer.setActive(false);
+        customerRepository.save(customer);
+
+        assertTrue(customerRepository.findByIdAndActiveTrue(id).isEmpty());
+    }
+
+    @Test
+    void testNativeWriteIsReadBackAfterEviction() {
+        customerRepository.findByIdAndActiveTrue(id).orElseThrow();
+        new JdbcTemplate(dataSource).update("UPDATE customer SET full_name = ? WHERE id = ?", "John Doe", id);
+
+        assertEquals(FULL_NAME, customerRepository.findByIdAndActiveTrue(id).orElseThrow().getFullName());
+
+        customerEntityCache.evict(id);
+
+        assertEquals("John Doe", customerRepository.findByIdAndActiveTrue(id).orElseThrow().getFullName());
+    }
+}
@@ -1,16 +1,27 @@
 package com.theraven.task.customer;
 
+import com.theraven.task.cache.BoundedTtlCache;
+import com.theraven.task.customer.dto.CustomerCursorPageDto;
 import com.theraven.task.customer.dto.CustomerRequestDto;
 import com.theraven.task.customer.dto.CustomerResponseDto;
+import com.theraven.task.customer.dto.CustomerSliceDto;
 import com.theraven.task.errorhandling.exception.CustomerExistsException;
 import com.theraven.task.errorhandling.exception.CustomerNotFoundException;
+import com.theraven.task.errorhandling.exception.CustomerPreconditionFailedException;
+import com.theraven.task.errorhandling.exception.CustomerValidationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
+import java.time.Duration;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,78 +39,163 @@ class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private CustomerUpsertRepository customerUpsertRepository;
+
+    @Mock
+    private CustomerSearchRepository customerSearchRepository;
+
+    @Mock
+    private CustomerArchiveRepository customerArchiveRepository;
+
+    @Mock
+    private CustomerEmailFilter customerEmailFilter;
+
     @Mock
     private CustomerMapper customerMapper;
 
+    @Mock
+    private ActiveCustomerCounter activeCustomerCounter;
+
+    @Mock
+    private CustomerEntityCache customerEntityCache;
+
+    @Spy
+    private BoundedTtlCache<Long, CustomerResponseDto> customerCache =
+            new BoundedTtlCache<>(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+
+    @Spy
+    private CustomerMetrics customerMetrics = new CustomerMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private CustomerShards customerShards = new CustomerShards(false, 1, 1);
+
     @InjectMocks
     private CustomerService customerService;
 
     @Test
     void testCreateCustomer() {
         CustomerRequestDto requestDto = new CustomerRequestDto(FULL_NAME, EMAIL, PHONE_NUMBER);
-        Customer customer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, PHONE_NUMBER, true);
-        CustomerResponseDto responseDto = new CustomerResponseDto(ID, FULL_NAME, FULL_NAME, PHONE_NUMBER);
+        Customer customer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, PHONE_NUMBER, true, 0L);
+        CustomerResponseDto responseDto = new CustomerResponseDto(ID, FULL_NAME, FULL_NAME, PHONE_NUMBER, TIME);
 
-        when(customerRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
-        when(customerMapper.mapRequestDtoToEntity(requestDto)).thenReturn(customer);
+        when(customerUpsertRepository.upsert(requestDto))
+                .thenReturn(new CustomerUpsertResult(CustomerUpsertResult.Outcome.CREATED, customer));
         when(customerMapper.mapEntityToResponseDto(customer)).thenReturn(responseDto);
-        when(customerRepository.save(customer)).thenReturn(customer);
 
         CustomerResponseDto createdCustomer = customerService.createCustomer(requestDto);
 
         assertNotNull(createdCustomer);
         assertEquals(responseDto, createdCustomer);
-        verify(customerRepository, times(1)).findByEmail(EMAIL);
-        verify(customerMapper, times(1)).mapRequestDtoToEntity(requestDto);
+        verify(customerUpsertRepository, times(1)).upsert(requestDto);
         verify(customerMapper, times(1)).mapEntityToResponseDto(customer);
-        verify(customerRepository, times(1)).save(customer);
+        verify(activeCustomerCounter, times(1)).increment();
+        verify(customerCache, times(1)).invalidate(ID);
+        verify(customerEntityCache, times(1)).evict(ID);
+        verify(customerEmailFilter, times(1)).add(EMAIL);
+        verifyNoInteractions(customerRepository, customerArchiveRepository);
+    }
+
+    @Test
+    void testCreateCustomerReactivatesDeletedCustomer() {
+        CustomerRequestDto requestDto = new CustomerRequestDto(FULL_NAME, EMAIL, PHONE_NUMBER);
+        Customer customer = new Customer(ID, TIME, TIME + 1, FULL_NAME, EMAIL, PHONE_NUMBER, true, 0L);
+
+        when(customerEmailFilter.mightExist(EMAIL)).thenReturn(true);
+        when(customerUpsertRepository.upsert(requestDto))
+                .thenReturn(new CustomerUpsertResult(CustomerUpsertResult.Outcome.REACTIVATED, customer));
+
+        CustomerUpsertResult result = customerService.upsertCustomer(requestDto);
+
+        assertEquals(CustomerUpsertResult.Outcome.REACTIVATED, result.outcome());
+        verify(customerArchiveRepository, times(1)).findArchivedEmails(List.of(EMAIL));
+        verify(customerArchiveRepository, never()).restore(any());
+        verify(activeCustomerCounter, times(1)).increment();
+        verify(customerCache, times(1)).invalidate(ID);
+        verify(customerEmailFilter, never()).add(any());
+    }
+
+    @Test
+    void testCreateCustomerRestoresArchivedCustomer() {
+        CustomerRequestDto requestDto = new CustomerRequestDto(FULL_NAME, EMAIL, PHONE_NUMBER);
+        Customer customer = new Customer(ID, TIME, TIME + 1, FULL_NAME, EMAIL, PHONE_NUMBER, true, 1L);
+
+        when(customerEmailFilter.mightExist(EMAIL)).thenReturn(true);
+        when(customerArchiveRepository.findArchivedEmails(List.of(EMAIL))).thenReturn(List.of(EMAIL));
+        when(customerUpsertRepository.upsert(requestDto))
+                .thenReturn(new CustomerUpsertResult(CustomerUpsertResult.Outcome.REACTIVATED, customer));
+
+        CustomerUpsertResult result = customerService.upsertCustomer(requestDto);
+
+        assertEquals(CustomerUpsertResult.Outcome.REACTIVATED, result.outcome());
+        verify(customerArchiveRepository, times(1)).restore(List.of(EMAIL));
     }
 
     @Test
     void testDeleteCustomer() {
-        Customer existingCustomer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, PHONE_NUMBER, true);
+        Customer existingCustomer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, PHONE_NUMBER, true, 0L);
         when(customerRepository.findByIdAndActiveTrue(ID)).thenReturn(Optional.of(existingCustomer));
 
         customerService.deleteCustomer(ID);
 
         assertFalse(existingCustomer.isActive());
         verify(customerRepository, times(1)).findByIdAndActiveTrue(ID);
-        verify(customerRepository, times(1)).delete(existingCustomer);
+        verify(customerRepository, times(1)).save(existingCustomer);
+        verify(activeCustomerCounter, times(1)).decrement();
         verifyNoMoreInteractions(customerRepository);
     }
 
     @Test
     public void testCreateCustomerExistException() {
         CustomerRequestDto requestDto = new CustomerRequestDto(FULL_NAME, EMAIL, PHONE_NUMBER);
-        Customer existingCustomer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, PHONE_NUMBER, true);
-        when(customerRepository.findByEmail(requestDto.getEmail())).thenReturn(Optional.of(existingCustomer));
+        when(customerUpsertRepository.upsert(requestDto)).thenReturn(CustomerUpsertResult.conflict());
 
         assertThrows(CustomerExistsException.class, () -> customerService.createCustomer(requestDto));
+        verifyNoInteractions(activeCustomerCounter);
     }
 
     @Test
     void testGetCustomerById() {
-        Customer customer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, PHONE_NUMBER, true);
-        CustomerResponseDto responseDto = new CustomerResponseDto(ID, FULL_NAME, EMAIL, PHONE_NUMBER);
+        CustomerResponseDto responseDto = new CustomerResponseDto(ID, FULL_NAME, EMAIL, PHONE_NUMBER, TIME);
 
-        when(customerRepository.findByIdAndActiveTrue(ID)).thenReturn(Optional.of(customer));
-        when(customerMapper.mapEntityToResponseDto(customer)).thenReturn(responseDto);
+        when(customerRepository.findResponseById(ID)).thenReturn(Optional.of(responseDto));
 
         CustomerResponseDto result = customerService.getCustomerById(ID);
 
         assertNotNull(result);
         assertEquals(responseDto, result);
-        verify(customerRepository, times(1)).findByIdAndActiveTrue(ID);
-        verify(customerMapper, times(1)).mapEntityToResponseDto(customer);
+        verify(customerRepository, times(1)).findResponseById(ID);
         verifyNoMoreInteractions(customerRepository);
-        verifyNoMoreInteractions(customerMapper);
+        verifyNoInteractions(customerMapper);
+    }
+
+    @Test
+    void testGetCustomerByIdServedFromCache() {
+        CustomerResponseDto responseDto = new CustomerResponseDto(ID, FULL_NAME, EMAIL, PHONE_NUMBER, TIME);
+
+        when(customerRepository.findResponseById(ID)).thenReturn(Optional.of(responseDto));
+
+        assertEquals(responseDto, customerService.getCustomerById(ID));
+        assertEquals(responseDto, customerService.getCustomerById(ID));
+        verify(customerRepository, times(1)).findResponseById(ID);
+        assertEquals(1, customerCache.stats().hits());
+    }
+
+    @Test
+    void testGetCustomerByIdNotFoundCachedAsAbsent() {
+        when(customerRepository.findResponseById(ID)).thenReturn(Optional.empty());
+
+        assertThrows(CustomerNotFoundException.class, () -> customerService.getCustomerById(ID));
+        assertThrows(CustomerNotFoundException.class, () -> customerService.getCustomerById(ID));
+        verify(customerRepository, times(1)).findResponseById(ID);
+        assertEquals(1, customerCache.stats().negativeHits());
     }
 
     @Test
     void testUpdateCustomer() {
         CustomerRequestDto requestDto = new CustomerRequestDto(FULL_NAME, EMAIL, PHONE_NUMBER);
-        Customer existingCustomer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, "+11234567890", true);
-        CustomerResponseDto responseDto = new CustomerResponseDto(ID, FULL_NAME, EMAIL, PHONE_NUMBER);
+        Customer existingCustomer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, "+11234567890", true, 0L);
+        CustomerResponseDto responseDto = new CustomerResponseDto(ID, FULL_NAME, EMAIL, PHONE_NUMBER, TIME);
 
         when(customerRepository.findByIdAndActiveTrue(ID)).thenReturn(Optional.of(existingCustomer));
         when(customerRepository.save(existingCustomer)).thenReturn(existingCustomer);
@@ -115,12 +211,13 @@ class CustomerServiceTest {
         verify(customerRepository, times(1)).findByIdAndActiveTrue(ID);
         verify(customerRepository, times(1)).save(existingCustomer);
         verify(customerMapper, times(1)).mapEntityToResponseDto(existingCustomer);
+        verify(customerCache, times(1)).invalidate(ID);
     }
 
     @Test
     public void testUpdateCustomer_UpdateEmailNotAllowed() {
         CustomerRequestDto requestDto = new CustomerRequestDto(FULL_NAME, EMAIL, PHONE_NUMBER);
-        Customer existingCustomer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, PHONE_NUMBER, true);
+        Customer existingCustomer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, PHONE_NUMBER, true, 0L);
         existingCustomer.setEmail("dmytro111@gmail.com");
 
         when(customerRepository.findByIdAndActiveTrue(ID)).thenReturn(Optional.of(existingCustomer));
@@ -128,6 +225,51 @@ class CustomerServiceTest {
         assertThrows(IllegalArgumentException.class, () -> customerService.updateCustomer(ID, requestDto));
     }
 
+    @Test
+    void testUpdateCustomerWithStaleEtag() {
+        CustomerRequestDto requestDto = new CustomerRequestDto(FULL_NAME, EMAIL, PHONE_NUMBER);
+        // modified within the same millisecond as the version the client read
+        Customer existingCustomer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, PHONE_NUMBER, true, 1L);
+
+        when(customerRepository.findByIdAndActiveTrue(ID)).thenReturn(Optional.of(existingCustomer));
+
+        assertThrows(CustomerPreconditionFailedException.class,
+                () -> customerService.updateCustomer(ID, requestDto, CustomerEtags.of(ID, 0L)));
+        verify(customerRepository, never()).save(any());
+    }
+
+    @Test
+    void testUpdateCustomerWithCurrentEtag() {
+        CustomerRequestDto requestDto = new CustomerRequestDto(FULL_NAME, EMAIL, PHONE_NUMBER);
+        Customer existingCustomer = new Customer(ID, TIME, TIME, FULL_NAME, EMAIL, PHONE_NUMBER, true, 0L);
+
+        when(customerRepository.findByIdAndActiveTrue(ID)).thenReturn(Optional.of(existingCustomer));
+        when(customerRepository.save(existingCustomer)).thenReturn(existingCustomer);
+
+        customerService.updateCustomer(ID, requestDto, "W/\"other\", " + CustomerEtags.of(ID, 0L));
+
+        verify(customerRepository, times(1)).save(existingCustomer);
+    }
+
+    @Test
+    void testGetCustomerVersionServedFromCache() {
+        CustomerResponseDto responseDto = new CustomerResponseDto(ID, FULL_NAME, EMAIL, PHONE_NUMBER, 3L);
+
+        when(customerRepository.findResponseById(ID)).thenReturn(Optional.of(responseDto));
+
+        customerService.getCustomerById(ID);
+
+        assertEquals(3L, customerService.getCustomerVersion(ID));
+        verify(customerRepository, never()).findVersionById(ID);
+    }
+
+    @Test
+    void testGetCustomerVersionNotFound() {
+        when(customerRepository.findVersionById(ID)).thenReturn(Optional.empty());
+
+        assertThrows(CustomerNotFoundException.class, () -> customerService.getCustomerVersion(ID));
+    }
+
     @Test
     void testDeleteCustomerCustomerNotFoundException() {
         when(customerRepository.findByIdAndActiveTrue(ID)).thenReturn(Optional.empty());
@@ -136,4 +278,80 @@ class CustomerServiceTest {
         verify(customerRepository, times(1)).findByIdAndActiveTrue(ID);
         verifyNoMoreInteractions(customerRepository);
     }
+
+    @Test
+    void testGetCustomerSliceWithEstimate() {
+        CustomerResponseDto responseDto = new CustomerResponseDto(ID, FULL_NAME, EMAIL, PHONE_NUMBER, TIME);
+        PageRequest pageRequest = PageRequest.of(0, 1);
+
+        when(customerRepository.findResponseSlice(pageRequest))
+                .thenReturn(new SliceImpl<>(List.of(responseDto), pageRequest, true));
+        when(activeCustomerCounter.getEstimate()).thenReturn(42L);
+
+        CustomerSliceDto slice = customerService.getCustomerSlice(0, 1, true);
+
+        assertEquals(List.of(responseDto), slice.getContent());
+        assertTrue(slice.isHasNext());
+        assertEquals(42L, slice.getTotalEstimate());
+        verify(customerRepository, never()).countByActiveTrue();
+        verify(customerMetrics).recordSliceRows(1);
+    }
+
+    @Test
+    void testGetAllCustomersByCursor() {
+        CustomerResponseDto first = new CustomerResponseDto(1L, FULL_NAME, EMAIL, PHONE_NUMBER, TIME);
+        CustomerResponseDto second = new CustomerResponseDto(2L, FULL_NAME, "second@gmail.com", PHONE_NUMBER, TIME);
+
+        when(customerRepository.findResponsesAfterId(0L, PageRequest.of(0, 2))).thenReturn(List.of(first, second));
+
+        CustomerCursorPageDto page = customerService.getAllCustomers("", 1);
+
+        assertEquals(List.of(first), page.getContent());
+        assertEquals(CursorUtils.encode(1L), page.getNextCursor());
+    }
+
+    @Test
+    void testGetAllCustomersByCursorLastPage() {
+        CustomerResponseDto customer = new CustomerResponseDto(2L, FULL_NAME, EMAIL, PHONE_NUMBER, TIME);
+
+        when(customerRepository.findResponsesAfterId(ID, PageRequest.of(0, 11))).thenReturn(List.of(customer));
+
+        CustomerCursorPageDto page = customerService.getAllCustomers(CursorUtils.encode(ID), 10);
+
+        assertEquals(1, page.getContent().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testGetAllCustomersByInvalidCursor() {
+        assertThrows(CustomerValidationException.class, () -> customerService.getAllCustomers("not a cursor", 10));
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void testGetAllCustomersByCursorOversizedPage() {
+        assertThrows(CustomerValidationException.class, () -> customerService.getAllCustomers("", Integer.MAX_VALUE));
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void testSearchCustomers() {
+        CustomerResponseDto exact = new CustomerResponseDto(2L, FULL_NAME, EMAIL, PHONE_NUMBER, TIME);
+        CustomerResponseDto prefix = new CustomerResponseDto(1L, FULL_NAME, "dmytro@gmail.com.ua", PHONE_NUMBER, TIME);
+
+        when(customerSearchRepository.search(EMAIL, -1, 0L, 2)).thenReturn(List.of(
+                new CustomerSearchHit(CustomerSearchHit.EXACT, exact),
+                new CustomerSearchHit(CustomerSearchHit.PREFIX, prefix)));
+
+        CustomerCursorPageDto page = customerService.searchCustomers(" " + EMAIL + " ", "", 1);
+
+        assertEquals(List.of(exact), page.getContent());
+        assertEquals(CursorUtils.encode(CustomerSearchHit.EXACT, 2L), page.getNextCursor());
+    }
+
+    @Test
+    void testSearchCustomersQueryTooShort() {
+        assertThrows(CustomerValidationException.class, () -> customerService.searchCustomers("dm", "", 10));
+        verifyNoInteractions(customerSearchRepository);
+    }
 }
@@ -0,0 +1,84 @@
+package com.theraven.task.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class H2CustomerSearchRepositoryTest {
+
+    private EmbeddedDatabase dataSource;
+    private H2CustomerSearchRepository customerSearchRepository;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScripts("db/migration/V1__init.db.sql", "db/migration/V3__customer_version.sql")
+                .build();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("""
+                INSERT INTO customer (id, created_at, updated_at, full_name, email, phone, is_active) VALUES
+                    (1, 0, 0, 'Anna Markevych', 'anna@example.com', '+31234567890', TRUE),
+                    (2, 0, 0, 'Dmytro Markevych', 'markevych@example.com', NULL, TRUE),
+                    (3, 0, 0, 'Mark Twain', 'mark@example.com', NULL, TRUE),
+                    (4, 0, 0, 'Deleted Markevych', 'deleted@example.com', NULL, FALSE)
+                """);
+
+        customerSearchRepository = new H2CustomerSearchRepository(jdbcTemplate, new CustomerShards(false, 1, 1));
+        customerSearchRepository.rebuild();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void testSearchRanksExactPrefixAndSubstringMatches() {
+        List<CustomerSearchHit> hits = customerSearchRepository.search("MARK", -1, 0L, 10);
+
+        assertEquals(List.of(2L, 3L, 1L), ids(hits));
+        assertEquals(List.of(CustomerSearchHit.PREFIX, CustomerSearchHit.PREFIX, CustomerSearchHit.SUBSTRING),
+                hits.stream().map(CustomerSearchHit::rank).toList());
+
+        List<CustomerSearchHit> exact = customerSearchRepository.search("mark twain", -1, 0L, 10);
+        assertEquals(CustomerSearchHit.EXACT, exact.get(0).rank());
+    }
+
+    @Test
+    void testSearchContinuesAfterCursor() {
+        List<CustomerSearchHit> firstPage = customerSearchRepository.search("mark", -1, 0L, 2);
+        CustomerSearchHit last = firstPage.get(1);
+
+        List<CustomerSearchHit> secondPage = customerSearchRepository.search("mark", last.rank(),
+                last.customer().getId(), 2);
+
+        assertEquals(List.of(2L, 3L), ids(firstPage));
+        assertEquals(List.of(1L), ids(secondPage));
+    }
+
+    @Test
+    void testIndexAndRemoveKeepSearchUpToDate() {
+        customerSearchRepository.index(new Customer(5L, 0L, 0L, "New Customer", "fresh@example.com", null, true, 0L));
+        customerSearchRepository.index(new Customer(1L, 0L, 1L, "Anna Smith", "anna@example.com", null, true, 1L));
+        customerSearchRepository.remove(3L);
+
+        assertEquals(List.of(5L), ids(customerSearchRepository.search("fresh", -1, 0L, 10)));
+        assertEquals(List.of(2L), ids(customerSearchRepository.search("markevych", -1, 0L, 10)));
+        assertTrue(customerSearchRepository.search("twain", -1, 0L, 10).isEmpty());
+    }
+
+    private static List<Long> ids(List<CustomerSearchHit> hits) {
+        return hits.stream().map(hit -> hit.customer().getId()).toList();
+    }
+}
@@ -0,0 +1,119 @@
+package com.theraven.task.customer;
+
+import com.theraven.task.customer.dto.CustomerRequestDto;
+import com.theraven.task.datasource.ShardRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class H2CustomerUpsertRepositoryTest {
+
+    private final String FULL_NAME = "Dmytro Markevych";
+    private final String EMAIL = "dmytro@gmail.com";
+    private final String PHONE_NUMBER = "+31234567890";
+
+    private EmbeddedDatabase dataSource;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private H2CustomerUpsertRepository customerUpsertRepository;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScripts("db/migration/V1__init.db.sql", "db/vendor/h2/V2__customer_sequence.sql",
+                        "db/migration/V3__customer_version.sql")
+                .build();
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        customerUpsertRepository = new H2CustomerUpsertRepository(jdbcTemplate, new CustomerShards(false, 1, 1),
+                transactionTemplate);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void testUpsertCreatesReactivatesAndConflicts() {
+        CustomerUpsertResult created = customerUpsertRepository.upsert(new CustomerRequestDto(FULL_NAME, EMAIL, PHONE_NUMBER));
+        assertEquals(CustomerUpsertResult.Outcome.CREATED, created.outcome());
+        assertTrue(created.customer().isActive());
+
+        CustomerUpsertResult conflict = customerUpsertRepository.upsert(new CustomerRequestDto("Other Name", EMAIL, null));
+        assertEquals(CustomerUpsertResult.Outcome.CONFLICT, conflict.outcome());
+
+        jdbcTemplate.getJdbcTemplate().update("UPDATE customer SET is_active = FALSE");
+
+        CustomerUpsertResult reactivated = customerUpsertRepository.upsert(new CustomerRequestDto("Other Name", EMAIL, null));
+        assertEquals(CustomerUpsertResult.Outcome.REACTIVATED, reactivated.outcome());
+        assertEquals(created.customer().getId(), reactivated.customer().getId());
+        assertEquals("Other Name", reactivated.customer().getFullName());
+        assertNull(reactivated.customer().getPhone());
+        assertTrue(reactivated.customer().isActive());
+        assertEquals(created.customer().getVersion() + 1, reactivated.customer().getVersion());
+    }
+
+    @Test
+    void testUpsertConflictsWithConcurrentInsert() {
+        NamedParameterJdbcTemplate racingTemplate = new NamedParameterJdbcTemplate(dataSource) {
+            @Override
+            public int update(String sql, SqlParameterSource parameters) {
+                insertCommitted(EMAIL);
+                return super.update(sql, parameters);
+            }
+        };
+        H2CustomerUpsertRepository racingRepository = new H2CustomerUpsertRepository(racingTemplate,
+                new CustomerShards(false, 1, 1), transactionTemplate);
+
+        CustomerUpsertResult result = racingRepository.upsert(new CustomerRequestDto(FULL_NAME, EMAIL, PHONE_NUMBER));
+
+        assertEquals(CustomerUpsertResult.Outcome.CONFLICT, result.outcome());
+        assertEquals(1, jdbcTemplate.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM customer", Integer.class));
+    }
+
+    @Test
+    void testUpsertEncodesShardInId() {
+        CustomerShards customerShards = new CustomerShards(true, 4, 1);
+        H2CustomerUpsertRepository shardedRepository = new H2CustomerUpsertRepository(jdbcTemplate, customerShards,
+                transactionTemplate);
+
+        CustomerUpsertResult created;
+        try (ShardRoutingDataSource.ShardScope ignored = ShardRoutingDataSource.use(3)) {
+            created = shardedRepository.upsert(new CustomerRequestDto(FULL_NAME, EMAIL, PHONE_NUMBER));
+        }
+        customerShards.shutdown();
+
+        assertEquals(CustomerUpsertResult.Outcome.CREATED, created.outcome());
+        assertEquals(3, customerShards.shardOf(created.customer().getId()));
+    }
+
+    /**
+     * Inserts and commits a customer on a connection of its own, outside the transaction of the upsert
+     */
+    private void insertCommitted(String email) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "INSERT INTO customer (id, full_name, email, is_active) VALUES (1000, 'Other Name', ?, TRUE)")) {
+            statement.setString(1, email);
+            statement.executeUpdate();
+        } catch (SQLException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.theraven.task.customer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the rank queries are plain SQL, so H2 runs them as PostgreSQL would, only without the indexes
+class PostgresCustomerSearchRepositoryTest {
+
+    private EmbeddedDatabase dataSource;
+    private PostgresCustomerSearchRepository customerSearchRepository;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScripts("db/migration/V1__init.db.sql", "db/migration/V3__customer_version.sql")
+                .build();
+
+        new JdbcTemplate(dataSource).update("""
+                INSERT INTO customer (id, created_at, updated_at, full_name, email, phone, is_active) VALUES
+                    (1, 0, 0, 'Anna Markevych', 'anna@example.com', '+31234567890', TRUE),
+                    (2, 0, 0, 'Dmytro Markevych', 'markevych@example.com', NULL, TRUE),
+                    (3, 0, 0, 'Mark Twain', 'mark@example.com', NULL, TRUE),
+                    (4, 0, 0, 'Deleted Markevych', 'deleted@example.com', NULL, FALSE),
+                    (5, 0, 0, 'Mark_Less', 'mark_less@example.com', NULL, TRUE)
+                """);
+
+        customerSearchRepository = new PostgresCustomerSearchRepository(new NamedParameterJdbcTemplate(dataSource),
+                new CustomerShards(false, 1, 1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void testSearchRanksExactPrefixAndSubstringMatches() {
+        List<CustomerSearchHit> hits = customerSearchRepository.search("MARK", -1, 0L, 10);
+
+        assertEquals(List.of(2L, 3L, 5L, 1L), ids(hits));
+        assertEquals(List.of(CustomerSearchHit.PREFIX, CustomerSearchHit.PREFIX, CustomerSearchHit.PREFIX,
+                CustomerSearchHit.SUBSTRING), hits.stream().map(CustomerSearchHit::rank).toList());
+
+        List<CustomerSearchHit> exact = customerSearchRepository.search("mark twain", -1, 0L, 10);
+        assertEquals(List.of(3L), ids(exact));
+        assertEquals(CustomerSearchHit.EXACT, exact.get(0).rank());
+    }
+
+    @Test
+    void testSearchContinuesAfterCursorAcrossRanks() {
+        List<CustomerSearchHit> firstPage = customerSearchRepository.search("mark", -1, 0L, 2);
+        CustomerSearchHit last = firstPage.get(1);
+
+        List<CustomerSearchHit> secondPage = customerSearchRepository.search("mark", last.rank(),
+                last.customer().getId(), 2);
+
+        assertEquals(List.of(2L, 3L), ids(firstPage));
+        assertEquals(List.of(5L, 1L), ids(secondPage));
+    }
+
+    @Test
+    void testSearchTreatsWildcardsLiterally() {
+        assertEquals(List.of(5L), ids(customerSearchRepository.search("mark_", -1, 0L, 10)));
+    }
+
+    private static List<Long> ids(List<CustomerSearchHit> hits) {
+        return hits.stream().map(hit -> hit.customer().getId()).toList();
+    }
+}
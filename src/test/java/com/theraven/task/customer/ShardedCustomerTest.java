@@ -0,0 +1,114 @@
+package com.theraven.task.customer;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theraven.task.customer.dto.CustomerBatchItemResultDto;
+import com.theraven.task.customer.dto.CustomerBatchItemStatus;
+import com.theraven.task.customer.dto.CustomerBulkRequestDto;
+import com.theraven.task.customer.dto.CustomerBulkResultDto;
+import com.theraven.task.customer.dto.CustomerRequestDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs requests touching several shards through the web layer, where an entity manager
+ * kept open for the whole request would pin every shard's work to the first one.
+ */
+@SpringBootTest(properties = "customer.sharding.url-template=jdbc:h2:mem:sharded_customer_test_{shard};DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@ActiveProfiles("sharded")
+class ShardedCustomerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Autowired
+    private CustomerEmailFilter customerEmailFilter;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testBatchCreateAndBulkDeleteSpanShards() throws Exception {
+        List<CustomerRequestDto> requests = IntStream.range(0, 8)
+                .mapToObj(i -> new CustomerRequestDto("Sharded Customer", "sharded" + i + "@example.com", null))
+                .collect(Collectors.toCollection(ArrayList::new));
+        Set<Integer> shards = requests.stream()
+                .map(r -> customerShards.shardOf(r.getEmail()))
+                .collect(Collectors.toSet());
+        assertTrue(shards.size() >= 2);
+
+        String archivedEmail = IntStream.range(0, 100)
+                .mapToObj(i -> "archived" + i + "@example.com")
+                .filter(e -> customerShards.shardOf(e) != 0)
+                .findFirst()
+                .orElseThrow();
+        int archivedShard = customerShards.shardOf(archivedEmail);
+        long archivedId = 1_000_000L * customerShards.idMultiplier() + archivedShard;
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        customerShards.on(archivedShard, () -> jdbcTemplate.update("INSERT INTO customer_archive "
+                + "(id, created_at, updated_at, full_name, email, phone, version, archived_at) "
+                + "VALUES (?, 0, 0, 'Archived Customer', ?, NULL, 0, 0)", archivedId, archivedEmail));
+        customerEmailFilter.add(archivedEmail);
+        requests.add(new CustomerRequestDto("Archived Customer", archivedEmail, null));
+
+        String createResponse = mockMvc.perform(post("/api/customers/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<CustomerBatchItemResultDto> results = objectMapper.readValue(createResponse, new TypeReference<>() {
+        });
+
+        assertEquals(requests.size(), results.size());
+        for (int i = 0; i < requests.size() - 1; i++) {
+            assertEquals(CustomerBatchItemStatus.CREATED, results.get(i).getStatus());
+            assertEquals(customerShards.shardOf(requests.get(i).getEmail()),
+                    customerShards.shardOf(results.get(i).getCustomer().getId()));
+        }
+        CustomerBatchItemResultDto reactivated = results.get(requests.size() - 1);
+        assertEquals(CustomerBatchItemStatus.REACTIVATED, reactivated.getStatus());
+        assertEquals(archivedId, reactivated.getCustomer().getId());
+
+        List<Long> ids = results.stream().map(r -> r.getCustomer().getId()).toList();
+        String deleteResponse = mockMvc.perform(delete("/api/customers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CustomerBulkRequestDto(ids, null))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        CustomerBulkResultDto deleted = objectMapper.readValue(deleteResponse, CustomerBulkResultDto.class);
+
+        assertEquals(ids.size(), deleted.getAffected());
+        assertEquals(0L, deleted.getMissing());
+        for (int shard : shards) {
+            Integer active = customerShards.on(shard, () -> jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM customer WHERE email LIKE 'sharded%' AND is_active", Integer.class));
+            assertEquals(0, active);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.theraven.task.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlDataSourceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Test
+    void testRejectsCallersBeyondPermitsAfterTimeout() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        AdmissionControlDataSource admissionControl = new AdmissionControlDataSource(dataSource, 1, Duration.ofMillis(10));
+
+        Connection admitted = admissionControl.getConnection();
+
+        assertThrows(SQLTransientConnectionException.class, admissionControl::getConnection);
+        verify(dataSource, times(1)).getConnection();
+
+        admitted.close();
+        assertEquals(1, admissionControl.getAvailablePermits());
+        verify(connection).close();
+    }
+
+    @Test
+    void testReleasesPermitOnlyOnceOnRepeatedClose() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        AdmissionControlDataSource admissionControl = new AdmissionControlDataSource(dataSource, 2, Duration.ofMillis(10));
+
+        Connection admitted = admissionControl.getConnection();
+        admitted.close();
+        admitted.close();
+
+        assertEquals(2, admissionControl.getAvailablePermits());
+    }
+
+    @Test
+    void testReleasesPermitWhenPoolFails() throws Exception {
+        when(dataSource.getConnection()).thenThrow(new SQLException("pool exhausted"));
+        AdmissionControlDataSource admissionControl = new AdmissionControlDataSource(dataSource, 1, Duration.ofMillis(10));
+
+        assertThrows(SQLException.class, admissionControl::getConnection);
+        assertEquals(1, admissionControl.getAvailablePermits());
+    }
+}
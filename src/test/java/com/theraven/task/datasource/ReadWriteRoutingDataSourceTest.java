@@ -0,0 +1,95 @@
+package com.theraven.task.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    public void setUp() {
+        routingDataSource = new ReadWriteRoutingDataSource(primary, replica);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testWritesAndNonTransactionalCallsGoToPrimary() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        assertSame(primaryConnection, routingDataSource.getConnection());
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    void testReadOnlyTransactionsGoToReplica() throws Exception {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertSame(replicaConnection, routingDataSource.getConnection());
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void testPinnedThreadReadsFromPrimary() throws Exception {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        try (ReadWriteRoutingDataSource.PrimaryPin outer = ReadWriteRoutingDataSource.pinPrimary()) {
+            try (ReadWriteRoutingDataSource.PrimaryPin inner = ReadWriteRoutingDataSource.pinPrimary()) {
+                assertSame(primaryConnection, routingDataSource.getConnection());
+            }
+            assertEquals(ReadWriteRoutingDataSource.Target.PRIMARY, ReadWriteRoutingDataSource.currentTarget());
+        }
+        assertEquals(ReadWriteRoutingDataSource.Target.REPLICA, ReadWriteRoutingDataSource.currentTarget());
+        verifyNoInteractions(replica);
+    }
+
+    @Test
+    void testLazyProxyRoutesOnFirstStatement() throws Exception {
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+        proxy.setTargetDataSource(routingDataSource);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        proxy.afterPropertiesSet();
+
+        // a transaction manager obtains the connection before marking the transaction read-only
+        Connection connection = proxy.getConnection();
+        connection.setReadOnly(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        connection.createStatement();
+
+        verify(replicaConnection).createStatement();
+        verifyNoInteractions(primary);
+    }
+}
@@ -0,0 +1,67 @@
+package com.theraven.task.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+    private final List<ReadWriteRoutingDataSource.Target> targets = new ArrayList<>();
+    private final FilterChain chain = (request, response) ->
+            targets.add(ReadWriteRoutingDataSource.currentTarget());
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testWriteIsServedFromPrimaryAndSetsCookie() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/customers"), response, chain);
+
+        assertEquals(List.of(ReadWriteRoutingDataSource.Target.PRIMARY), targets);
+        assertTrue(response.getHeader(HttpHeaders.SET_COOKIE).startsWith(ReadYourWritesFilter.COOKIE_NAME + "="));
+        assertEquals(ReadWriteRoutingDataSource.Target.REPLICA, ReadWriteRoutingDataSource.currentTarget());
+    }
+
+    @Test
+    void testReadWithinWindowIsServedFromPrimary() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME,
+                Long.toString(System.currentTimeMillis() + 5000)));
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertEquals(List.of(ReadWriteRoutingDataSource.Target.PRIMARY), targets);
+    }
+
+    @Test
+    void testReadAfterWindowIsServedFromReplica() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customers/1");
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME,
+                Long.toString(System.currentTimeMillis() - 1)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals(List.of(ReadWriteRoutingDataSource.Target.REPLICA), targets);
+        assertNull(response.getHeader(HttpHeaders.SET_COOKIE));
+    }
+}
@@ -0,0 +1,81 @@
+package com.theraven.task.datasource;
+
+import com.theraven.task.config.ReadWriteRoutingConfig;
+import com.theraven.task.customer.Customer;
+import com.theraven.task.customer.CustomerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+// every repository call runs in its own read-only transaction, as a read routed to the replica would
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaAwareJpaDialectTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long id;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        id = customerRepository.save(new Customer(null, null, null, "Dmytro Markevych", "dmytro@gmail.com",
+                "+31234567890", true, null)).getId();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        customerRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void testReplicaLoadsAreNotCached() {
+        customerRepository.findByIdAndActiveTrue(id).orElseThrow();
+        customerRepository.findByIdAndActiveTrue(id).orElseThrow();
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getSecondLevelCachePutCount());
+        assertEquals(0, statistics.getQueryCachePutCount());
+    }
+
+    @Test
+    void testPrimaryLoadsAreCached() {
+        try (ReadWriteRoutingDataSource.PrimaryPin ignored = ReadWriteRoutingDataSource.pinPrimary()) {
+            customerRepository.findByIdAndActiveTrue(id).orElseThrow();
+        }
+        customerRepository.findByIdAndActiveTrue(id).orElseThrow();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(statistics.getQueryCachePutCount() > 0);
+    }
+
+    @TestConfiguration
+    static class DialectConfig {
+
+        @Bean
+        static BeanPostProcessor replicaAwareJpaDialectPostProcessor() {
+            return ReadWriteRoutingConfig.replicaAwareJpaDialectPostProcessor();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.theraven.task.errorhandling;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.theraven.task.errorhandling.exception.CustomerNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorUtilsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testErrorBodyHasErrorResponseFields() throws Exception {
+        JsonNode body = objectMapper.readTree(ErrorUtils.errorBody(HttpStatus.NOT_FOUND,
+                "Customer \"1\" not found\n"));
+
+        assertEquals(404, body.get("statusCode").asInt());
+        assertDoesNotThrow(() -> Instant.parse(body.get("timestamp").asText()));
+        assertEquals("NOT_FOUND", body.get("message").asText());
+        assertEquals(1, body.get("details").size());
+        assertEquals("Customer \"1\" not found\n", body.get("details").get(0).asText());
+    }
+
+    @Test
+    void testExceptionBodyIsJson() {
+        ResponseEntity<Object> response = ErrorUtils.buildExceptionBody(
+                new CustomerNotFoundException("Customer not found with ID: 1"), HttpStatus.NOT_FOUND);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertInstanceOf(byte[].class, response.getBody());
+    }
+
+    @Test
+    void testDomainExceptionHasNoStackTrace() {
+        assertEquals(0, new CustomerNotFoundException("Customer not found with ID: 1").getStackTrace().length);
+    }
+}
@@ -0,0 +1,27 @@
+package com.theraven.task.errorhandling;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LogRateLimiterTest {
+
+    @Test
+    void testSuppressesBeyondPermitsAndReportsThemInNextInterval() {
+        AtomicLong clock = new AtomicLong();
+        LogRateLimiter limiter = new LogRateLimiter(2, Duration.ofNanos(1000), clock::get);
+
+        assertEquals(0, limiter.acquire());
+        assertEquals(0, limiter.acquire());
+        assertEquals(-1, limiter.acquire());
+        assertEquals(-1, limiter.acquire());
+
+        clock.set(1000);
+        assertEquals(2, limiter.acquire());
+        assertEquals(0, limiter.acquire());
+        assertEquals(-1, limiter.acquire());
+    }
+}
@@ -0,0 +1,128 @@
+package com.theraven.task.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+    private static final String BODY = "{\"fullName\":\"Dmytro Markevych\",\"email\":\"dmytro@gmail.com\"}";
+
+    private final IdempotencyFilter filter = new IdempotencyFilter(
+            new InMemoryIdempotencyStore(100, Duration.ofMinutes(1)), Duration.ofSeconds(1));
+    private final AtomicInteger calls = new AtomicInteger();
+    private int status = 201;
+
+    private final FilterChain chain = (request, response) -> {
+        calls.incrementAndGet();
+        // the handler must still be able to read the body
+        String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        httpResponse.setStatus(status);
+        httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        httpResponse.setHeader(HttpHeaders.ETAG, "\"1-100\"");
+        httpResponse.getOutputStream().write(("{\"id\":" + calls.get() + ",\"request\":" + body + "}")
+                .getBytes(StandardCharsets.UTF_8));
+    };
+
+    @Test
+    void testRetryIsAnsweredWithFirstResponse() throws Exception {
+        MockHttpServletResponse first = send("key-1", BODY);
+        MockHttpServletResponse retry = send("key-1", BODY);
+
+        assertEquals(1, calls.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("\"1-100\"", retry.getHeader(HttpHeaders.ETAG));
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertNull(first.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    void testServerErrorIsNotStored() throws Exception {
+        status = 503;
+        send("key-1", BODY);
+        status = 201;
+
+        assertEquals(201, send("key-1", BODY).getStatus());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testKeyReusedWithAnotherBodyIsRejected() throws Exception {
+        send("key-1", BODY);
+
+        MockHttpServletResponse response = send("key-1", "{\"fullName\":\"John Doe\"}");
+
+        assertEquals(422, response.getStatus());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testRequestWithoutKeyAlwaysRuns() throws Exception {
+        send(null, BODY);
+        send(null, BODY);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testBufferedBodyCanBeReadWithReadListener() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/customers");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        request.addHeader(IdempotencyFilter.HEADER, "key-1");
+        StringBuilder body = new StringBuilder();
+        AtomicInteger completions = new AtomicInteger();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (filteredRequest, response) -> {
+            ServletInputStream inputStream = filteredRequest.getInputStream();
+            inputStream.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (inputStream.isReady() && !inputStream.isFinished()) {
+                        body.append((char) inputStream.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    completions.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    fail(throwable);
+                }
+            });
+            ((HttpServletResponse) response).setStatus(201);
+        });
+
+        assertEquals(BODY, body.toString());
+        assertEquals(1, completions.get());
+    }
+
+    private MockHttpServletResponse send(String key, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/customers");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,69 @@
+package com.theraven.task.idempotency;
+
+import com.theraven.task.errorhandling.exception.IdempotencyKeyInProgressException;
+import com.theraven.task.errorhandling.exception.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryIdempotencyStoreTest {
+    private static final String KEY = "key-1";
+    private static final String FINGERPRINT = "fingerprint";
+    private static final IdempotentResponse RESPONSE = new IdempotentResponse(FINGERPRINT, 201,
+            Map.of("Content-Type", "application/json"), "{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(100, Duration.ofMinutes(1));
+
+    @Test
+    void testCompletedKeyIsReplayed() {
+        assertTrue(store.reserve(KEY, FINGERPRINT, Duration.ZERO).isEmpty());
+        store.complete(KEY, RESPONSE);
+
+        assertSame(RESPONSE, store.reserve(KEY, FINGERPRINT, Duration.ZERO).orElseThrow());
+    }
+
+    @Test
+    void testKeyReusedForAnotherRequestIsRejected() {
+        store.reserve(KEY, FINGERPRINT, Duration.ZERO);
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> store.reserve(KEY, "other", Duration.ZERO));
+        store.complete(KEY, RESPONSE);
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> store.reserve(KEY, "other", Duration.ZERO));
+    }
+
+    @Test
+    void testConcurrentDuplicateWaitsForResponse() throws Exception {
+        store.reserve(KEY, FINGERPRINT, Duration.ZERO);
+
+        CompletableFuture<Optional<IdempotentResponse>> duplicate = CompletableFuture.supplyAsync(() ->
+                store.reserve(KEY, FINGERPRINT, Duration.ofSeconds(10)));
+        store.complete(KEY, RESPONSE);
+
+        assertSame(RESPONSE, duplicate.get(10, TimeUnit.SECONDS).orElseThrow());
+    }
+
+    @Test
+    void testDuplicateGivesUpWhileKeyIsHeld() {
+        store.reserve(KEY, FINGERPRINT, Duration.ZERO);
+
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> store.reserve(KEY, FINGERPRINT, Duration.ofMillis(10)));
+    }
+
+    @Test
+    void testReleasedKeyRunsAgain() {
+        store.reserve(KEY, FINGERPRINT, Duration.ZERO);
+        store.release(KEY);
+
+        assertTrue(store.reserve(KEY, FINGERPRINT, Duration.ZERO).isEmpty());
+    }
+}
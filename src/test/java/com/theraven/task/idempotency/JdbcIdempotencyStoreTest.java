@@ -0,0 +1,97 @@
+package com.theraven.task.idempotency;
+
+import com.theraven.task.errorhandling.exception.IdempotencyKeyInProgressException;
+import com.theraven.task.errorhandling.exception.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcIdempotencyStoreTest {
+    private static final String KEY = "key-1";
+    private static final String FINGERPRINT = "fingerprint";
+
+    private EmbeddedDatabase dataSource;
+    private JdbcIdempotencyStore store;
+
+    @BeforeEach
+    public void setUp() {
+        dataSource = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .addScript("db/migration/V7__idempotency_key.sql")
+                .build();
+        store = new JdbcIdempotencyStore(dataSource, Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        dataSource.shutdown();
+    }
+
+    @Test
+    void testCompletedKeyIsReplayed() {
+        assertTrue(store.reserve(KEY, FINGERPRINT, Duration.ZERO).isEmpty());
+        store.complete(KEY, new IdempotentResponse(FINGERPRINT, 201,
+                Map.of("Content-Type", "application/json", "ETag", "\"1-100\""),
+                "{\"id\":1}".getBytes(StandardCharsets.UTF_8)));
+
+        IdempotentResponse replayed = store.reserve(KEY, FINGERPRINT, Duration.ZERO).orElseThrow();
+
+        assertEquals(201, replayed.status());
+        assertEquals(Map.of("Content-Type", "application/json", "ETag", "\"1-100\""), replayed.headers());
+        assertEquals("{\"id\":1}", new String(replayed.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testKeyReusedForAnotherRequestIsRejected() {
+        store.reserve(KEY, FINGERPRINT, Duration.ZERO);
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> store.reserve(KEY, "other", Duration.ZERO));
+    }
+
+    @Test
+    void testDuplicateGivesUpWhileKeyIsHeld() {
+        store.reserve(KEY, FINGERPRINT, Duration.ZERO);
+
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> store.reserve(KEY, FINGERPRINT, Duration.ofMillis(100)));
+    }
+
+    @Test
+    void testReleasedKeyRunsAgain() {
+        store.reserve(KEY, FINGERPRINT, Duration.ZERO);
+        store.release(KEY);
+
+        assertTrue(store.reserve(KEY, FINGERPRINT, Duration.ZERO).isEmpty());
+    }
+
+    @Test
+    void testKeyHeldPastLockTimeoutIsTakenOver() {
+        JdbcIdempotencyStore crashing = new JdbcIdempotencyStore(dataSource, Duration.ofMinutes(1), Duration.ZERO);
+        crashing.reserve(KEY, FINGERPRINT, Duration.ZERO);
+
+        assertTrue(store.reserve(KEY, FINGERPRINT, Duration.ZERO).isEmpty());
+    }
+
+    @Test
+    void testPurgeDeletesExpiredKeys() {
+        new JdbcIdempotencyStore(dataSource, Duration.ofMinutes(1), Duration.ZERO)
+                .reserve(KEY, FINGERPRINT, Duration.ZERO);
+        store.reserve("key-2", FINGERPRINT, Duration.ZERO);
+
+        store.purgeExpired();
+
+        assertEquals(1, new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM idempotency_key",
+                Integer.class));
+    }
+}